@@ -0,0 +1,86 @@
+package park;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Animal.act for each species. Every operation lets the next living animal of the
+ * species act once. The park is populated again at the start of every iteration
+ * (and whenever all animals of the species died), with the time of day set so the
+ * species is awake. Finding the next animal and populating the park again happen
+ * outside of the measured time.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActBenchmark {
+    @Param({ "RABBIT", "FOX", "LION", "DEER", "BEAR" })
+    private String species;
+
+    private Simulator simulator;
+    private List<Animal> animals;
+    private List<Actor> newActors;
+    private int next;
+    private Animal animal;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        simulator = Parks.create(80, 120);
+        newActors = new ArrayList<>();
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        Parks.reset(simulator);
+        animals = Parks.animals(simulator.getField(), Species.valueOf(species));
+        Parks.wakeUp(simulator.getEnvironment(), animals.get(0));
+        next = 0;
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        animal = nextLivingAnimal();
+    }
+
+    @Benchmark
+    public Animal act() {
+        animal.act(newActors);
+        newActors.clear();
+        return animal;
+    }
+
+    private Animal nextLivingAnimal() {
+        for (int i = 0; i < animals.size(); i++) {
+            next++;
+            if (next >= animals.size()) {
+                next = 0;
+            }
+            Animal animal = animals.get(next);
+            if (animal.isAlive()) {
+                return animal;
+            }
+        }
+        setUp();
+        return animals.get(0);
+    }
+}
@@ -0,0 +1,30 @@
+package park;
+
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * A full simulation step with the sequential step and with the ActivityStep, which skips
+ * the sleeping animals, in the default park and in a park with many foxes and lions.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+public class ActivityBenchmark extends SimulationBenchmark {
+    @Param({ "default", "predators" })
+    private String park;
+
+    @Param({ "sequential", "activity" })
+    private String strategy;
+
+    @Override
+    protected void configure(Simulator simulator) {
+        if (park.equals("predators")) {
+            simulator.setCreationProbability(Species.FOX, 0.3);
+            simulator.setCreationProbability(Species.RABBIT, 0.4);
+            simulator.setCreationProbability(Species.LION, 0.3);
+        }
+        if (strategy.equals("activity")) {
+            simulator.setStepStrategy(new ActivityStep(simulator.getEnvironment()));
+        }
+    }
+}
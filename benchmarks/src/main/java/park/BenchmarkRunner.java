@@ -0,0 +1,28 @@
+package park;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, so that the allocation rate
+ * (gc.alloc.rate.norm, bytes per operation) is reported next to the time of
+ * every benchmark.
+ *
+ * Usage: java -jar target/benchmarks.jar [regex of the benchmarks to run]
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : "park\\..*Benchmark";
+        Options options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
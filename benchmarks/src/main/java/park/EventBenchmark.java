@@ -0,0 +1,22 @@
+package park;
+
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * A full simulation step with the animals in the entity store and the plants in the plant
+ * layer, with animals that are updated every step and with event-driven animals.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+public class EventBenchmark extends SimulationBenchmark {
+    @Param({ "stepwise", "event" })
+    private String mode;
+
+    @Override
+    protected void configure(Simulator simulator) {
+        simulator.setEntityStore(true);
+        simulator.setPlantLayer(true);
+        simulator.setEventDriven(mode.equals("event"));
+    }
+}
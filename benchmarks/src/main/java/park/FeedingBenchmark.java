@@ -0,0 +1,88 @@
+package park;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Predator.hunt (by lions, which hunt the most species), Herbivore.findPlants
+ * (by rabbits) and Plant.spawnPlants. Every operation uses the next hunter, grazer
+ * or plant that is still alive. Eaten animals and plants are not replaced, so the
+ * park is populated again at the start of every iteration.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeedingBenchmark {
+    private Simulator simulator;
+    private List<Animal> lions;
+    private List<Animal> rabbits;
+    private List<Plant> plants;
+    private List<Actor> newPlants;
+    private int nextLion, nextRabbit, nextPlant;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        simulator = Parks.create(80, 120);
+        newPlants = new ArrayList<>();
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        Parks.reset(simulator);
+        Field field = simulator.getField();
+        lions = Parks.animals(field, Species.LION);
+        rabbits = Parks.animals(field, Species.RABBIT);
+        plants = Parks.plants(field);
+    }
+
+    @Benchmark
+    public Location hunt() {
+        nextLion = (nextLion + 1) % lions.size();
+        Lion lion = (Lion) lions.get(nextLion);
+        if (!lion.isAlive()) {
+            return null;
+        }
+        return lion.hunt(lion);
+    }
+
+    @Benchmark
+    public Location findPlants() {
+        nextRabbit = (nextRabbit + 1) % rabbits.size();
+        Rabbit rabbit = (Rabbit) rabbits.get(nextRabbit);
+        if (!rabbit.isAlive()) {
+            return null;
+        }
+        return rabbit.findPlants(rabbit);
+    }
+
+    @Benchmark
+    public int spawnPlants() {
+        nextPlant = (nextPlant + 1) % plants.size();
+        Plant plant = plants.get(nextPlant);
+        if (plant.isActive()) {
+            plant.spawnPlants(newPlants);
+        }
+        int spawned = newPlants.size();
+        newPlants.clear();
+        return spawned;
+    }
+}
@@ -0,0 +1,79 @@
+package park;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Neighbourhood queries of the field. The field is populated once and is not
+ * changed by the queries; every operation queries the next location of the field.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldBenchmark {
+    private Field field;
+    private Location[] locations;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        field = Parks.create(80, 120).getField();
+        locations = new Location[field.getDepth() * field.getWidth()];
+        for (int row = 0; row < field.getDepth(); row++) {
+            for (int col = 0; col < field.getWidth(); col++) {
+                locations[row * field.getWidth() + col] = field.getLocation(row, col);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Location> adjacentLocations() {
+        return field.adjacentLocations(nextLocation());
+    }
+
+    @Benchmark
+    public List<Location> getFreeAdjacentLocations() {
+        return field.getFreeAdjacentLocations(nextLocation());
+    }
+
+    @Benchmark
+    public Location freeAdjacentLocation() {
+        return field.freeAdjacentLocation(nextLocation());
+    }
+
+    @Benchmark
+    public int neighbours() {
+        Neighbourhood neighbours = field.neighbours(nextLocation());
+        int free = 0;
+        while (neighbours.nextFree()) {
+            free++;
+        }
+        return free;
+    }
+
+    private Location nextLocation() {
+        next++;
+        if (next == locations.length) {
+            next = 0;
+        }
+        return locations[next];
+    }
+}
@@ -0,0 +1,66 @@
+package park;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Counting the species of a populated park: the incremental counts used by
+ * getPopulationDetails and isViable, and the full scan used to verify them.
+ * The density is the fraction of the initially populated animals and plants that is
+ * kept; the full scan skips the empty parts of sparse parks.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldStatsBenchmark {
+    @Param({ "80x120", "500x500" })
+    private String size;
+
+    @Param({ "1.0", "0.05" })
+    private double density;
+
+    private Field field;
+    private FieldStats stats;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] dimensions = size.split("x");
+        field = Parks.create(Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1])).getField();
+        Parks.thin(field, density);
+        stats = new FieldStats();
+    }
+
+    @Benchmark
+    public String getPopulationDetails() {
+        return stats.getPopulationDetails(field);
+    }
+
+    @Benchmark
+    public boolean isViable() {
+        return stats.isViable(field);
+    }
+
+    @Benchmark
+    public Field fullScan() {
+        stats.verifyCounts(field);
+        return field;
+    }
+}
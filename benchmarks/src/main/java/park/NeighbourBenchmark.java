@@ -0,0 +1,121 @@
+package park;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Questions about the cells around a cell, answered by looking at each of them and by the
+ * bit grids of the field: is there a rabbit, is there a sick animal, and which cells are
+ * free. Every operation asks about the next cell of a populated park.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NeighbourBenchmark {
+    // Row and column offsets of the cells around a cell, in the order of Neighbourhood.
+    private static final int[] ROW_OFFSETS = { -1, -1, -1, 0, 0, 1, 1, 1 };
+    private static final int[] COL_OFFSETS = { -1, 0, 1, -1, 1, -1, 0, 1 };
+
+    private Field field;
+    private int depth, width;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Simulator simulator = Parks.create(80, 120);
+        for (int i = 0; i < 20; i++) {
+            simulator.simulateOneStep();
+        }
+        field = simulator.getField();
+        depth = field.getDepth();
+        width = field.getWidth();
+    }
+
+    @Benchmark
+    public boolean rabbitScan() {
+        int cell = nextCell();
+        int row = cell / width;
+        int col = cell % width;
+        for (int i = 0; i < ROW_OFFSETS.length; i++) {
+            int r = row + ROW_OFFSETS[i];
+            int c = col + COL_OFFSETS[i];
+            if (r >= 0 && r < depth && c >= 0 && c < width && field.getAnimalAt(r, c) instanceof Rabbit) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean rabbitMask() {
+        int cell = nextCell();
+        return field.getNeighbours(Species.RABBIT, cell / width, cell % width) != 0;
+    }
+
+    @Benchmark
+    public boolean sickScan() {
+        int cell = nextCell();
+        int row = cell / width;
+        int col = cell % width;
+        for (int i = 0; i < ROW_OFFSETS.length; i++) {
+            int r = row + ROW_OFFSETS[i];
+            int c = col + COL_OFFSETS[i];
+            if (r >= 0 && r < depth && c >= 0 && c < width) {
+                Object animal = field.getAnimalAt(r, c);
+                if (animal instanceof Animal && ((Animal) animal).hasDisease()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean sickMask() {
+        int cell = nextCell();
+        return field.getSickNeighbours(cell / width, cell % width) != 0;
+    }
+
+    @Benchmark
+    public int freeScan() {
+        int cell = nextCell();
+        int row = cell / width;
+        int col = cell % width;
+        int free = 0;
+        for (int i = 0; i < ROW_OFFSETS.length; i++) {
+            int r = row + ROW_OFFSETS[i];
+            int c = col + COL_OFFSETS[i];
+            if (r >= 0 && r < depth && c >= 0 && c < width && field.getAnimalAt(r, c) == null) {
+                free |= 1 << i;
+            }
+        }
+        return free;
+    }
+
+    @Benchmark
+    public int freeMask() {
+        int cell = nextCell();
+        return field.getFreeNeighbours(cell / width, cell % width);
+    }
+
+    private int nextCell() {
+        next = (next + 7919) % (depth * width);
+        return next;
+    }
+}
@@ -0,0 +1,106 @@
+package park;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Helper methods shared by the benchmarks to set up parks in a known state.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+public class Parks {
+
+    /**
+     * Create a new headless, populated simulation. The randomizer is reset first,
+     * so every call gives the same park.
+     *
+     * @param depth Depth of the field.
+     * @param width Width of the field.
+     * @return The new simulator.
+     */
+    public static Simulator create(int depth, int width) {
+        Randomizer.reset();
+        return new Simulator(depth, width, true);
+    }
+
+    /**
+     * Reset the simulation to its starting position, reproducibly.
+     *
+     * @param simulator The simulator to reset.
+     */
+    public static void reset(Simulator simulator) {
+        Randomizer.reset();
+        simulator.reset();
+    }
+
+    /**
+     * Remove a random part of the animals and plants, so the park has the given density.
+     *
+     * @param field The field to thin out.
+     * @param density The fraction of animals and plants to keep, between 0 and 1.
+     */
+    public static void thin(Field field, double density) {
+        Random rand = Randomizer.getRandom();
+        for (int row = 0; row < field.getDepth(); row++) {
+            for (int col = 0; col < field.getWidth(); col++) {
+                Object animal = field.getAnimalAt(row, col);
+                if (animal instanceof Animal && rand.nextDouble() > density) {
+                    ((Animal) animal).setDead(DeathCause.OVERCROWDING);
+                }
+                Plant plant = field.getPlantAt(row, col);
+                if (plant != null && rand.nextDouble() > density) {
+                    plant.setDead();
+                }
+            }
+        }
+    }
+
+    /**
+     * @param field A field.
+     * @param species The species to look for.
+     * @return All animals of the given species in the field.
+     */
+    public static List<Animal> animals(Field field, Species species) {
+        List<Animal> animals = new ArrayList<>();
+        for (int row = 0; row < field.getDepth(); row++) {
+            for (int col = 0; col < field.getWidth(); col++) {
+                Object animal = field.getAnimalAt(row, col);
+                if (animal instanceof Animal && ((Animal) animal).getSpecies() == species) {
+                    animals.add((Animal) animal);
+                }
+            }
+        }
+        return animals;
+    }
+
+    /**
+     * @param field A field.
+     * @return All plants in the field.
+     */
+    public static List<Plant> plants(Field field) {
+        List<Plant> plants = new ArrayList<>();
+        for (int row = 0; row < field.getDepth(); row++) {
+            for (int col = 0; col < field.getWidth(); col++) {
+                Plant plant = field.getPlantAt(row, col);
+                if (plant != null) {
+                    plants.add(plant);
+                }
+            }
+        }
+        return plants;
+    }
+
+    /**
+     * Advance the time of day until the given animal is awake (at most one day).
+     *
+     * @param environment The environment of the animal.
+     * @param animal The animal that should be awake.
+     */
+    public static void wakeUp(Environment environment, Animal animal) {
+        for (int hour = 0; hour < 24 && animal.sleeps(); hour++) {
+            environment.incrementHourOfDay();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package park;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * The cost of each scheduler: reordering the actors of a freshly populated park on its
+ * own, and a full simulation step with the scheduler.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+public class SchedulerBenchmark extends SimulationBenchmark {
+    @Param({ "insertion", "shuffled", "blockRotated", "tiled" })
+    private String order;
+
+    private Field field;
+    private Scheduler scheduler;
+    // The weather and all the animals and plants of the populated park.
+    private List<Actor> actors;
+    private int step;
+
+    @Override
+    protected void configure(Simulator simulator) {
+        switch (order) {
+            case "shuffled": scheduler = new ShuffledOrder(); break;
+            case "blockRotated": scheduler = new BlockRotatedOrder(); break;
+            case "tiled": scheduler = new TiledOrder(); break;
+            default: scheduler = new InsertionOrder(); break;
+        }
+        simulator.setScheduler(scheduler);
+    }
+
+    @Override
+    protected void populated(Simulator simulator) {
+        field = simulator.getField();
+        actors = new ArrayList<>();
+        actors.add(simulator.getEnvironment().getWeather());
+        for (Species species : Species.values()) {
+            if (species != Species.PLANT) {
+                actors.addAll(Parks.animals(field, species));
+            }
+        }
+        actors.addAll(Parks.plants(field));
+    }
+
+    @Benchmark
+    public List<Actor> schedule() {
+        scheduler.schedule(actors, field, ++step);
+        return actors;
+    }
+}
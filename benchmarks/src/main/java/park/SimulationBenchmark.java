@@ -0,0 +1,79 @@
+package park;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A full simulation step at several grid sizes, the fixture shared by the benchmarks
+ * comparing variants of the simulation. Subclasses only configure their variant.
+ * The park is populated again at the start of every iteration, and before a step
+ * whenever it stopped being viable, outside of the measured time.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class SimulationBenchmark {
+    @Param({ "80x120", "500x500" })
+    private String size;
+
+    private Simulator simulator;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        String[] dimensions = size.split("x");
+        simulator = Parks.create(Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1]));
+        configure(simulator);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        Parks.reset(simulator);
+        populated(simulator);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        if (!simulator.isViable()) {
+            setUp();
+        }
+    }
+
+    @Benchmark
+    public int simulateOneStep() {
+        simulator.simulateOneStep();
+        return simulator.getStep();
+    }
+
+    /**
+     * Configure the variant of the simulation once it has been created.
+     *
+     * @param simulator The new simulator.
+     */
+    protected abstract void configure(Simulator simulator);
+
+    /**
+     * Change the park after it has been populated again. By default it is kept as it is.
+     *
+     * @param simulator The simulator that has just been reset.
+     */
+    protected void populated(Simulator simulator) {
+    }
+}
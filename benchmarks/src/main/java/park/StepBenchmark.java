@@ -0,0 +1,24 @@
+package park;
+
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * A full simulation step at several grid sizes and densities. The density is the
+ * fraction of the initially populated animals and plants that is kept.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+public class StepBenchmark extends SimulationBenchmark {
+    @Param({ "1.0", "0.25" })
+    private double density;
+
+    @Override
+    protected void configure(Simulator simulator) {
+    }
+
+    @Override
+    protected void populated(Simulator simulator) {
+        Parks.thin(simulator.getField(), density);
+    }
+}
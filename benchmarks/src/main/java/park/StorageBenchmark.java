@@ -0,0 +1,37 @@
+package park;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * A full simulation step with the animals stored as objects and in the entity store,
+ * with the entity store stepped bulk-synchronously on all available processors, and with
+ * the plants kept in a plant layer instead of objects.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+public class StorageBenchmark extends SimulationBenchmark {
+    @Param({ "objects", "entities", "synchronous", "plantLayer", "entitiesPlantLayer" })
+    private String storage;
+
+    private SynchronousStep synchronousStep;
+
+    @Override
+    protected void configure(Simulator simulator) {
+        simulator.setEntityStore(!storage.equals("objects") && !storage.equals("plantLayer"));
+        simulator.setPlantLayer(storage.endsWith("PlantLayer") || storage.equals("plantLayer"));
+        if (storage.equals("synchronous")) {
+            synchronousStep = new SynchronousStep(Runtime.getRuntime().availableProcessors());
+            simulator.setStepStrategy(synchronousStep);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (synchronousStep != null) {
+            synchronousStep.shutdown();
+        }
+    }
+}
@@ -0,0 +1,208 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A step strategy that does not visit sleeping animals. A sleeping animal does not change
+ * during a step, but the SequentialStep still calls act on it, just for the animal to find out
+ * that it sleeps. Foxes sleep all day and lions outside the afternoon, so in a park with many
+ * predators most of these calls do nothing.
+ *
+ * The species are put into groups with the same sleeping hours, which are read from the
+ * Environment through Species.sleeps (see SpeciesTable): the rabbits, deer and
+ * bears sleep at night, the foxes during the day and the lions outside the afternoon. The
+ * actors that never sleep (the weather, an AnimalSystem and the plants) form the first group.
+ * The list of actors is kept sorted by group, with the actors of each group in a consecutive
+ * range, so a sleeping group is skipped as a whole without looking at its actors.
+ *
+ * The groups act one after another, the actors of a group in the order of the list, and
+ * the newborns are added at the end of their group. The actors therefore act in a different
+ * order than with the SequentialStep, so the results are different. A dead animal that was
+ * asleep (e.g. it was eaten) stays in the list until its group wakes up again; it is not
+ * active, so it is not saved nor counted anywhere.
+ *
+ * When a scheduler reorders the actors, they are sorted into their groups again before the
+ * step, keeping the order of the scheduler within each group. This costs a pass over the
+ * list, which the default InsertionOrder avoids.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+public class ActivityStep implements StepStrategy {
+    // The group of the actors that never sleep. It is the first group, so the actors
+    // without a location keep acting first.
+    private static final int ALWAYS_AWAKE = 0;
+
+    // The environment whose hour of the day decides which groups sleep.
+    private final Environment environment;
+    // The group of each species, indexed by the species' ordinal.
+    private final int[] speciesGroups;
+    // Whether the actors of a group sleep, indexed by group and then by hour of the day.
+    private final boolean[][] asleep;
+    // Where each group ends in the list of actors, null until the actors are grouped.
+    private int[] groupEnds;
+    // The number of actors in the list after the last step.
+    private int size;
+    // Where the active actors of each group end after they acted in the current step.
+    private final int[] kept;
+    // The newborns of the current step, all together and then sorted by group.
+    private final List<Actor> newActors;
+    private final List<List<Actor>> groupNewActors;
+    // Space used to sort the actors into groups.
+    private Actor[] buffer;
+    private int[] actorGroups;
+
+    /**
+     * Create the strategy for the standard species.
+     *
+     * @param environment The environment of the simulation.
+     */
+    public ActivityStep(Environment environment) {
+        this.environment = environment;
+        SpeciesTable table = SpeciesTable.standard();
+        Species[] species = Species.values();
+        speciesGroups = new int[species.length];
+
+        // The sleeping hours of each group; the first group never sleeps.
+        List<boolean[]> schedules = new ArrayList<>();
+        schedules.add(new boolean[SpeciesTable.HOURS]);
+        for (Species s : species) {
+            boolean[] hours = table.asleep[s.ordinal()];
+            int group = 0;
+            while (group < schedules.size() && !Arrays.equals(schedules.get(group), hours)) {
+                group++;
+            }
+            if (group == schedules.size()) {
+                schedules.add(hours);
+            }
+            speciesGroups[s.ordinal()] = group;
+        }
+        asleep = schedules.toArray(new boolean[0][]);
+
+        kept = new int[asleep.length];
+        newActors = new ArrayList<>();
+        groupNewActors = new ArrayList<>();
+        for (int group = 0; group < asleep.length; group++) {
+            groupNewActors.add(new ArrayList<>());
+        }
+        buffer = new Actor[0];
+        actorGroups = new int[0];
+    }
+
+    /**
+     * Let the actors of the groups that are awake act. The actors of the groups that sleep
+     * are not visited.
+     *
+     * @see StepStrategy
+     */
+    @Override
+    public void step(List<Actor> actors, Field field, int step) {
+        if (groupEnds == null || actors.size() != size) {
+            group(actors);
+        }
+
+        int hour = environment.getHourOfDay();
+        int start = 0;
+        for (int group = 0; group < asleep.length; group++) {
+            int end = groupEnds[group];
+            int position = end;
+            if (!asleep[group][hour]) {
+                // The active actors are moved down, leaving the inactive ones at the end of the group.
+                position = start;
+                for (int i = start; i < end; i++) {
+                    Actor actor = actors.get(i);
+                    actor.act(newActors);
+                    if (actor.isActive()) {
+                        actors.set(position++, actor);
+                    }
+                }
+            }
+            kept[group] = position;
+            start = end;
+        }
+
+        for (Actor actor : newActors) {
+            groupNewActors.get(groupOf(actor)).add(actor);
+        }
+        newActors.clear();
+
+        // Remove the inactive actors and add the newborns of each group, starting from the
+        // last group so the positions of the groups before it do not move.
+        for (int group = asleep.length - 1; group >= 0; group--) {
+            List<Actor> born = groupNewActors.get(group);
+            actors.subList(kept[group], groupEnds[group]).clear();
+            actors.addAll(kept[group], born);
+        }
+        int oldEnd = 0;
+        start = 0;
+        for (int group = 0; group < asleep.length; group++) {
+            List<Actor> born = groupNewActors.get(group);
+            int end = start + kept[group] - oldEnd + born.size();
+            oldEnd = groupEnds[group];
+            groupEnds[group] = end;
+            start = end;
+            born.clear();
+        }
+        size = actors.size();
+    }
+
+    /**
+     * The actors will be sorted into their groups again before the next step.
+     *
+     * @see StepStrategy
+     */
+    @Override
+    public void actorsChanged(List<Actor> actors) {
+        groupEnds = null;
+    }
+
+    /**
+     * Sort the actors into their groups, keeping their order within each group.
+     *
+     * @param actors List of all actors in the simulation.
+     */
+    private void group(List<Actor> actors) {
+        int n = actors.size();
+        if (buffer.length < n) {
+            buffer = new Actor[n];
+            actorGroups = new int[n];
+        }
+
+        // Count the actors of each group and find where each group starts.
+        int[] next = new int[asleep.length];
+        for (int i = 0; i < n; i++) {
+            int group = groupOf(actors.get(i));
+            actorGroups[i] = group;
+            next[group]++;
+        }
+        groupEnds = new int[asleep.length];
+        int position = 0;
+        for (int group = 0; group < asleep.length; group++) {
+            int count = next[group];
+            next[group] = position;
+            position += count;
+            groupEnds[group] = position;
+        }
+
+        for (int i = 0; i < n; i++) {
+            buffer[next[actorGroups[i]]++] = actors.get(i);
+        }
+        for (int i = 0; i < n; i++) {
+            actors.set(i, buffer[i]);
+            buffer[i] = null;
+        }
+        size = n;
+    }
+
+    /**
+     * @param actor An actor of the simulation.
+     * @return The group of the actor.
+     */
+    private int groupOf(Actor actor) {
+        Species species = Species.of(actor);
+        if (species == null) {
+            return ALWAYS_AWAKE;
+        }
+        return speciesGroups[species.ordinal()];
+    }
+}
@@ -1,6 +1,4 @@
 import java.util.List;
-import java.util.Random;
-import java.util.Iterator;
 
 /**
  * A class representing shared characteristics of animals.
@@ -31,8 +29,8 @@ public abstract class Animal implements Actor {
     private Disease disease;
     // The animal's environment.
     private Environment environment;
-    // Random generator.
-    private static final Random rand = Randomizer.getRandom();
+    // The parameters of the animal's species.
+    private final SpeciesProfile profile;
 
     /**
      * Create a new animal at location in field and certain environment.
@@ -44,22 +42,24 @@ public abstract class Animal implements Actor {
      * @param environment Environment in which the animal is.
      */
     public Animal(Field field, Location location, boolean randomAge, Environment environment) {
+        profile = SpeciesProfile.of(getSpecies());
         alive = true;
         this.field = field;
         setLocation(location); // Places the animal on the field.
         age = 0;
         this.environment = environment;
-        breedCounter = getDaysToWait();
+        breedCounter = profile.getDaysToWait();
         disease = null; // At the creation every animal is healthy.
         gender = getRandomGender(); // Whenever we create an animal the gender is random.
         if(randomAge) {
             // This is executed when populating the field.
-            age = rand.nextInt(getMaxAge());
-            foodLevel = rand.nextInt(getMaxFoodValue());
+            age = Randomizer.getRandom().nextInt(profile.getMaxAge());
+            foodLevel = Randomizer.getRandom().nextInt(profile.getMaxFoodValue());
         }
         else {
             // When new animal is born the food value is maximal.
-            foodLevel = getMaxFoodValue();
+            foodLevel = profile.getMaxFoodValue();
+            field.getVitalStatistics().recordBirth();
         }
     }
 
@@ -82,7 +82,7 @@ public abstract class Animal implements Actor {
      *
      * @return 'F' if animal is female, 'M' otherwise.
      */
-    private char getGender() {
+    protected char getGender() {
         return gender;
     }
 
@@ -90,7 +90,7 @@ public abstract class Animal implements Actor {
      *
      * @return Age of the animal.
      */
-    private int getAge() {
+    protected int getAge() {
         return age;
     }
 
@@ -120,14 +120,38 @@ public abstract class Animal implements Actor {
         return environment;
     }
 
+    /**
+     *
+     * @return The parameters of the animal's species.
+     */
+    public SpeciesProfile getProfile() {
+        return profile;
+    }
+
     /**
      *
      * @return The disease the animal has, null if it is healthy.
      */
-    private Disease getDisease() {
+    protected Disease getDisease() {
         return disease;
     }
 
+    /**
+     *
+     * @return Steps since the last breeding (never more than the steps to wait until next breeding).
+     */
+    protected int getBreedCounter() {
+        return breedCounter;
+    }
+
+    /**
+     *
+     * @return The food level of the animal.
+     */
+    protected int getFoodLevel() {
+        return foodLevel;
+    }
+
     /**
      * Return the animal's field.
      *
@@ -149,14 +173,13 @@ public abstract class Animal implements Actor {
     }
 
     /**
-     * This function determines whether an animal currently sleeps.
-     * By default all animals sleep at night, but the method can be overridden
-     * in subclasses to reflect species' specific behaviour.
+     * This function determines whether an animal currently sleeps, which depends
+     * on its species (see Species.sleeps).
      *
      * @return True if animal currently sleeps, false if not.
      */
     protected boolean sleeps(){
-        return environment.isNight();
+        return getSpecies().sleeps(environment);
     }
 
 
@@ -166,8 +189,20 @@ public abstract class Animal implements Actor {
      * Animal gets sick with certain probability which is different for every species.
      */
     private void setDisease() {
-        if (rand.nextDouble() <= getDiseaseProbability()) {
-            disease = new Disease(10);
+        if (Randomizer.getRandom().nextDouble() <= profile.getDiseaseProbability()) {
+            catchDisease(new Disease(10));
+        }
+    }
+
+    /**
+     * The animal gets the given disease, which the field is told about.
+     *
+     * @param disease The disease, null if the animal is healthy.
+     */
+    private void catchDisease(Disease disease) {
+        this.disease = disease;
+        if (disease != null && location != null) {
+            field.setSick(location);
         }
     }
 
@@ -176,7 +211,7 @@ public abstract class Animal implements Actor {
      * The counter never exceeds the days needed to wait until next breeding.
      */
     private void incrementBreedCounter() {
-        if(breedCounter < getDaysToWait() && getGender() == 'F'){
+        if(breedCounter < profile.getDaysToWait() && getGender() == 'F'){
             breedCounter++;
         }
     }
@@ -187,7 +222,7 @@ public abstract class Animal implements Actor {
     private void incrementHunger() {
         foodLevel--;
         if(foodLevel <= 0) {
-            setDead();
+            setDead(DeathCause.STARVATION);
         }
     }
 
@@ -198,8 +233,8 @@ public abstract class Animal implements Actor {
      * @param foodValue Value by which we need to increase the food level.
      */
     protected void setFoodLevel(int foodValue) {
-        if (foodLevel + foodValue > getMaxFoodValue()){
-            foodLevel = getMaxFoodValue();
+        if (foodLevel + foodValue > profile.getMaxFoodValue()){
+            foodLevel = profile.getMaxFoodValue();
         }else {
             foodLevel += foodValue;
         }
@@ -212,16 +247,34 @@ public abstract class Animal implements Actor {
     private void incrementAge() {
         if (disease != null){
             // If animal is sick it ages more quickly.
-            age = age + getMaxAge()/disease.getAgingFactor();
+            age = age + profile.getMaxAge()/disease.getAgingFactor();
         }
         else {
             age++;
         }
-        if(age > getMaxAge()) {
-            setDead();
+        if(age > profile.getMaxAge()) {
+            setDead(disease != null ? DeathCause.DISEASE : DeathCause.OLD_AGE);
         }
     }
 
+    /**
+     * Set the whole state of the animal at once, e.g. when the simulation is restored
+     * from a snapshot.
+     *
+     * @param age Age of the animal.
+     * @param gender 'F' for female, 'M' for male.
+     * @param breedCounter Steps since the last breeding.
+     * @param foodLevel Food level of the animal.
+     * @param disease The disease the animal has, null if it is healthy.
+     */
+    protected void restoreState(int age, char gender, int breedCounter, int foodLevel, Disease disease) {
+        this.age = age;
+        this.gender = gender;
+        this.breedCounter = breedCounter;
+        this.foodLevel = foodLevel;
+        catchDisease(disease);
+    }
+
     /**
      * Place the animal at the new location in the given field.
      *
@@ -238,8 +291,13 @@ public abstract class Animal implements Actor {
     /**
      * Indicates that the animal is no longer alive.
      * Animal is removed from the field.
+     *
+     * @param cause Why the animal died.
      */
-    protected void setDead() {
+    protected void setDead(DeathCause cause) {
+        if(alive && field != null) {
+            field.getVitalStatistics().recordDeath(cause);
+        }
         alive = false;
         if(location != null) {
             field.clear(location);
@@ -257,7 +315,7 @@ public abstract class Animal implements Actor {
      * @return 'F' for female, 'M' for male.
      */
     private char getRandomGender(){
-        if (rand.nextBoolean()) {
+        if (Randomizer.getRandom().nextBoolean()) {
             return 'F';
         }
         return 'M';
@@ -273,11 +331,11 @@ public abstract class Animal implements Actor {
      */
     protected boolean findMate(){
         Field field = getField();
-        List<Location> adjacent = field.adjacentLocations(getLocation());
-        Iterator<Location> it = adjacent.iterator();
-        while(it.hasNext()) {
-            Location where = it.next();
-            Object animal = field.getObjectAt(where);
+        Neighbourhood neighbours = field.neighbours(getLocation());
+        // Only the cells holding an animal of the same species are looked at.
+        int mates = field.getNeighbours(getSpecies(), location.getRow(), location.getCol());
+        while(neighbours.nextIn(mates)) {
+            Object animal = field.getAnimalAt(neighbours.getRow(), neighbours.getCol());
             if(animal instanceof Animal) {
                 Animal mate = (Animal) animal;
                 if (mate.getClass().equals(getClass())
@@ -307,8 +365,8 @@ public abstract class Animal implements Actor {
      */
     protected int breed() {
         int births = 0;
-        if(canBreed() && rand.nextDouble() <= getBreedingProbability()) {
-            births = rand.nextInt(getMaxLitterSize()) + 1;
+        if(canBreed() && Randomizer.getRandom().nextDouble() <= profile.getBreedingProbability()) {
+            births = Randomizer.getRandom().nextInt(profile.getMaxLitterSize()) + 1;
             breedCounter = 0; // The animal just bred. Now it needs to wait some time before it can breed again.
         }
         return births;
@@ -321,26 +379,27 @@ public abstract class Animal implements Actor {
      * @return True if the animal can breed, false otherwise.
      */
     private boolean canBreed() {
-        return getAge() >= getBreedingAge()
-                && breedCounter == getDaysToWait()
+        return getAge() >= profile.getBreedingAge()
+                && breedCounter == profile.getDaysToWait()
                 && !hasDisease()
-                && foodLevel > getMaxFoodValue()/4;
+                && foodLevel > profile.getMaxFoodValue()/4;
     }
 
     /**
      * When an animal meets a sick animal it can get the disease of that animal (with certain probability).
      */
     private void checkForDisease(){
-        if (rand.nextDouble() > getDiseaseProbability()) {
+        if (Randomizer.getRandom().nextDouble() > profile.getDiseaseProbability()) {
             return;
         }
-        List<Location> locations = field.adjacentLocations(location);
-        for(Location l : locations) {
-            Object obj = field.getObjectAt(l);
+        Neighbourhood neighbours = field.neighbours(location);
+        int sick = field.getSickNeighbours(location.getRow(), location.getCol());
+        while(neighbours.nextIn(sick)) {
+            Object obj = field.getAnimalAt(neighbours.getRow(), neighbours.getCol());
             if (obj instanceof Animal){
                 Animal animal = (Animal) obj;
                 if(animal.hasDisease()){
-                    disease = animal.getDisease();
+                    catchDisease(animal.getDisease());
                     return;
                 }
             }
@@ -385,7 +444,7 @@ public abstract class Animal implements Actor {
             }
             else {
                 // Overcrowding.
-                setDead();
+                setDead(DeathCause.OVERCROWDING);
             }
         }
     }
@@ -395,51 +454,9 @@ public abstract class Animal implements Actor {
 
     /**
      *
-     * @return Breeding probability of the animal's species.
-     */
-    protected abstract double getBreedingProbability();
-
-    /**
-     *
-     * @return Breeding age of the animal's species.
-     */
-    protected abstract int getBreedingAge();
-
-    /**
-     *
-     * @return Maximum litter size of the animal's species.
-     */
-    protected abstract int getMaxLitterSize();
-
-    /**
-     *
-     * @return Steps to wait until next breeding of the animal's species.
-     */
-    protected  abstract int getDaysToWait();
-
-    /**
-     *
-     * @return Food value that a specimen of the animal's species gives when eaten.
-     */
-    protected abstract int getFoodValue();
-
-    /**
-     *
-     * @return Disease probability of the animal's species.
-     */
-    protected abstract double getDiseaseProbability();
-
-    /**
-     *
-     * @return Maximum food value of the animal's species.
-     */
-    protected abstract int getMaxFoodValue();
-
-    /**
-     *
-     * @return Max age of the animal's species.
+     * @return The species of the animal.
      */
-    public abstract int getMaxAge();
+    public abstract Species getSpecies();
 
     /**
      * Specifies special behaviour for every animal when giving birth since each species
@@ -457,4 +474,4 @@ public abstract class Animal implements Actor {
      * @return Location where food source was found or null if no such location was found.
      */
     protected abstract Location findFood();
-}
\ No newline at end of file
+}
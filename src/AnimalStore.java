@@ -0,0 +1,257 @@
+import java.util.Arrays;
+
+/**
+ * Stores the state of many animals as a structure of arrays instead of one object per
+ * animal. Every animal is identified by an entity ID, which is its index in the parallel
+ * arrays holding its species, age, food level, breed counter, gender, disease and cell
+ * (row * width + col) in the field. The IDs of dead animals are recycled through a free
+ * list, so the arrays only grow with the largest population ever reached.
+ *
+ * The store also keeps the ID of the animal in each cell of the field, and the IDs of the
+ * living animals in the order in which they act. The arrays are accessed directly by the
+ * AnimalSystem, which implements the behaviour of the animals.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+public class AnimalStore {
+    // The ID of no animal.
+    public static final int NONE = -1;
+    // Number of animals the arrays can initially hold.
+    private static final int INITIAL_CAPACITY = 1024;
+    // All species, indexed by their ordinal.
+    private static final Species[] SPECIES = Species.values();
+
+    // The state of each animal, indexed by its ID.
+    byte[] species;
+    int[] age;
+    int[] foodLevel;
+    int[] breedCounter;
+    // 'F' for female, 'M' for male.
+    char[] gender;
+    // Aging factor of the animal's disease, 0 if it is healthy.
+    int[] disease;
+    int[] cell;
+    boolean[] alive;
+    // The ID of the animal in each cell of the field, NONE if there is none.
+    int[] idAt;
+
+    // Number of IDs that have been handed out, living or free.
+    private int used;
+    // IDs of dead animals that can be given to new ones.
+    private int[] free;
+    private int freeCount;
+    // IDs of the animals in the order in which they act.
+    private int[] order;
+    private int size;
+
+    /**
+     * Create an empty store for a field with the given number of cells.
+     *
+     * @param cells The number of cells of the field (depth * width).
+     */
+    public AnimalStore(int cells) {
+        idAt = new int[cells];
+        grow(INITIAL_CAPACITY);
+        clear();
+    }
+
+    /**
+     * Remove all animals from the store.
+     */
+    public void clear() {
+        Arrays.fill(idAt, NONE);
+        Arrays.fill(alive, false);
+        used = 0;
+        freeCount = 0;
+        size = 0;
+    }
+
+    /**
+     * Add an animal to the store. It acts after all the animals already in the store.
+     *
+     * @param species The species of the animal.
+     * @param cell The cell of the field the animal is in. Must be empty.
+     * @param age The age of the animal.
+     * @param gender 'F' for female, 'M' for male.
+     * @param breedCounter Steps since the last breeding.
+     * @param foodLevel The food level of the animal.
+     * @param disease The aging factor of the animal's disease, 0 if it is healthy.
+     * @return The ID of the new animal.
+     */
+    public int add(Species species, int cell, int age, char gender, int breedCounter, int foodLevel, int disease) {
+        int id;
+        if (freeCount > 0) {
+            id = free[--freeCount];
+        }
+        else {
+            if (used == alive.length) {
+                grow(alive.length * 2);
+            }
+            id = used++;
+        }
+        this.species[id] = (byte) species.ordinal();
+        this.age[id] = age;
+        this.gender[id] = gender;
+        this.breedCounter[id] = breedCounter;
+        this.foodLevel[id] = foodLevel;
+        this.disease[id] = disease;
+        this.cell[id] = cell;
+        alive[id] = true;
+        idAt[cell] = id;
+        order[size++] = id;
+        return id;
+    }
+
+    /**
+     * Move an animal to another cell.
+     *
+     * @param id The ID of the animal.
+     * @param cell The new cell of the animal. Must be empty.
+     */
+    public void move(int id, int cell) {
+        idAt[this.cell[id]] = NONE;
+        this.cell[id] = cell;
+        idAt[cell] = id;
+    }
+
+    /**
+     * Mark an animal as dead and remove it from its cell. Its ID is only recycled
+     * by the next call to compact, so it can still be seen in the order of the animals.
+     *
+     * @param id The ID of the animal.
+     */
+    public void kill(int id) {
+        alive[id] = false;
+        idAt[cell[id]] = NONE;
+    }
+
+    /**
+     * Remove the dead animals from the order of the animals and recycle their IDs.
+     * The living animals keep their order.
+     */
+    public void compact() {
+        int living = 0;
+        for (int i = 0; i < size; i++) {
+            int id = order[i];
+            if (alive[id]) {
+                order[living++] = id;
+            }
+            else {
+                free[freeCount++] = id;
+            }
+        }
+        size = living;
+    }
+
+    /**
+     * @return The number of animals in the order of the animals (including the
+     *         animals that died since the last call to compact).
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param i The position of an animal in the order of the animals, from 0 to size() - 1.
+     * @return The ID of that animal.
+     */
+    public int getId(int i) {
+        return order[i];
+    }
+
+    /**
+     * @param id The ID of an animal.
+     * @return The species of the animal.
+     */
+    public Species getSpecies(int id) {
+        return SPECIES[species[id]];
+    }
+
+    /**
+     * @param id The ID of an animal.
+     * @return The cell of the field the animal is in (row * width + col).
+     */
+    public int getCell(int id) {
+        return cell[id];
+    }
+
+    /**
+     * @param id The ID of an animal.
+     * @return The age of the animal.
+     */
+    public int getAge(int id) {
+        return age[id];
+    }
+
+    /**
+     * @param id The ID of an animal.
+     * @return The food level of the animal.
+     */
+    public int getFoodLevel(int id) {
+        return foodLevel[id];
+    }
+
+    /**
+     * @param id The ID of an animal.
+     * @return Steps since the last breeding of the animal.
+     */
+    public int getBreedCounter(int id) {
+        return breedCounter[id];
+    }
+
+    /**
+     * @param id The ID of an animal.
+     * @return 'F' if the animal is female, 'M' otherwise.
+     */
+    public char getGender(int id) {
+        return gender[id];
+    }
+
+    /**
+     * @param id The ID of an animal.
+     * @return The aging factor of the animal's disease, 0 if it is healthy.
+     */
+    public int getDisease(int id) {
+        return disease[id];
+    }
+
+    /**
+     * @param id The ID of an animal.
+     * @return True if the animal is alive.
+     */
+    public boolean isAlive(int id) {
+        return alive[id];
+    }
+
+    /**
+     * Enlarge the arrays to the given capacity, keeping their contents.
+     *
+     * @param capacity The new number of animals the arrays can hold.
+     */
+    private void grow(int capacity) {
+        if (alive == null) {
+            species = new byte[capacity];
+            age = new int[capacity];
+            foodLevel = new int[capacity];
+            breedCounter = new int[capacity];
+            gender = new char[capacity];
+            disease = new int[capacity];
+            cell = new int[capacity];
+            alive = new boolean[capacity];
+            free = new int[capacity];
+            order = new int[capacity];
+            return;
+        }
+        species = Arrays.copyOf(species, capacity);
+        age = Arrays.copyOf(age, capacity);
+        foodLevel = Arrays.copyOf(foodLevel, capacity);
+        breedCounter = Arrays.copyOf(breedCounter, capacity);
+        gender = Arrays.copyOf(gender, capacity);
+        disease = Arrays.copyOf(disease, capacity);
+        cell = Arrays.copyOf(cell, capacity);
+        alive = Arrays.copyOf(alive, capacity);
+        free = Arrays.copyOf(free, capacity);
+        order = Arrays.copyOf(order, capacity);
+    }
+}
@@ -0,0 +1,973 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntConsumer;
+
+/**
+ * Simulates all the animals of a field that are kept in an AnimalStore, as an alternative
+ * to creating an object for every animal. The animals behave exactly as described in
+ * Animal, Predator and Herbivore, but their state is read from the store's arrays and the
+ * parameters of their species from a SpeciesTable.
+ *
+ * The system is a single actor without a location: during its turn all its animals act
+ * one after another, in the order in which they were added, on the thread running the step.
+ * So that the rest of the simulation (plants, statistics, views) can see the animals, each
+ * one is represented in the animal layer of the field by its Species.
+ *
+ * The animals can also act bulk-synchronously (see SynchronousStep). Every awake animal
+ * then first proposes what it will do, looking only at the state of the field at the start
+ * of the step, and the proposals are then committed one after another in a random order of
+ * priority. A proposal that conflicts with one committed before it (a move or a birth into a
+ * cell that was taken, prey that was already eaten) is not carried out, and animals eaten
+ * before their turn do not act. Proposals do not change any shared state, so they can be made
+ * on several threads; each animal uses a random stream derived from the step and the cell it
+ * starts from, so a given seed always gives the same result.
+ *
+ * In event-driven mode the animals do not count down their age, hunger and breeding
+ * cooldown every step. Each species has a clock that ticks once every step in which it is
+ * awake, and the store keeps the age, food level and breed counter of each animal at the
+ * tick at which they were last brought up to date; their current values are derived from
+ * the ticks since then when they are needed (to breed, eat or catch a disease). The tick at
+ * which an animal will die of old age or starvation, and at which it will catch a disease by
+ * itself, is computed in advance and scheduled on a TimingWheel of its species, so the
+ * animal is only visited for what depends on its neighbours: catching a disease from them,
+ * breeding, eating and moving. Eating only delays starvation, so the death of an animal is
+ * not rescheduled when it eats but when its old death turns out to be too early.
+ * These animals die at the start of the step, before any animal acts, instead of in their
+ * own turn, and an animal catches a disease by itself after a number of ticks drawn when it
+ * is born instead of after one random number per step. The results are therefore different
+ * from those of the step-by-step mode, and a restored snapshot draws the diseases of its
+ * animals again, so it does not continue exactly like the saved simulation. Event-driven
+ * animals cannot act bulk-synchronously.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+public class AnimalSystem implements Actor {
+    // Aging factor of the disease animals catch by themselves.
+    private static final int DISEASE_AGING_FACTOR = 10;
+    // All species, indexed by their ordinal.
+    private static final Species[] SPECIES = Species.values();
+    // All causes of death, indexed by their ordinal.
+    private static final DeathCause[] CAUSES = DeathCause.values();
+    // The most births of a proposal: one in each adjacent cell.
+    private static final int MAX_BIRTHS = 8;
+    // Kinds of proposals.
+    private static final byte DIE = 0;
+    private static final byte MOVE = 1;
+    private static final byte EAT_PREY = 2;
+    private static final byte EAT_PLANT = 3;
+    // Key of the random numbers used to order the proposals in a step.
+    private static final long PRIORITY_KEY = -1;
+
+    // The field the animals live in.
+    private Field field;
+    // The environment of the animals.
+    private Environment environment;
+    // The state of the animals.
+    private AnimalStore store;
+    // The parameters of the species.
+    private SpeciesTable table;
+
+    // Whether the animals are event-driven.
+    private boolean eventDriven;
+    // The events of each species, keyed by the ticks of its clock, indexed by the species'
+    // ordinal. An event is the ID of an animal times two, plus one for catching a disease.
+    private TimingWheel[] wheels;
+    // Fire the events of each species, indexed by the species' ordinal.
+    private IntConsumer[] handlers;
+    // The tick at which the state of each animal was last brought up to date, and the
+    // ticks at which its death and its disease are scheduled, indexed by its ID.
+    private int[] settled, deathDue, diseaseDue;
+
+    // The proposals of the current step, indexed by the position of the proposing animal.
+    // The IDs of the proposing animals.
+    private int[] proposers;
+    private int proposalCount;
+    // The state of each proposing animal at the end of the step.
+    private int[] nextAge, nextFoodLevel, nextBreedCounter, nextDisease;
+    // What each animal does: DIE, MOVE, EAT_PREY or EAT_PLANT.
+    private byte[] action;
+    // The cell the animal moves to, or the cause of its death (as an ordinal of DeathCause).
+    private int[] target;
+    // The ID of the prey eaten, and the food value of the prey or plant eaten.
+    private int[] prey, foodGain;
+    // The newborns of each animal: their number, and the cell and gender of each of them.
+    private int[] births;
+    private int[] birthCells;
+    private char[] birthGenders;
+    // The positions of the proposals in the order in which they are committed, each
+    // preceded by its priority in the upper half of the value.
+    private long[] order;
+    // The seed of the simulation, from which the random streams of the proposals and the
+    // priorities of the commits are derived.
+    private long seed;
+
+    /**
+     * Create a system for the animals of the standard species.
+     *
+     * @param field The field the animals live in.
+     * @param environment The environment of the animals.
+     */
+    public AnimalSystem(Field field, Environment environment) {
+        this(field, environment, SpeciesTable.standard());
+    }
+
+    /**
+     * Create a system for the animals of the given species.
+     *
+     * @param field The field the animals live in.
+     * @param environment The environment of the animals.
+     * @param table The parameters of the species.
+     */
+    public AnimalSystem(Field field, Environment environment, SpeciesTable table) {
+        this.field = field;
+        this.environment = environment;
+        this.table = table;
+        seed = Randomizer.getSeed();
+        store = new AnimalStore(field.getDepth() * field.getWidth());
+        proposers = new int[0];
+        wheels = new TimingWheel[SPECIES.length];
+        handlers = new IntConsumer[SPECIES.length];
+        for (int s = 0; s < SPECIES.length; s++) {
+            int species = s;
+            wheels[s] = new TimingWheel();
+            handlers[s] = event -> fire(species, event);
+        }
+        settled = new int[0];
+        deathDue = new int[0];
+        diseaseDue = new int[0];
+    }
+
+    /**
+     * @return The store holding the state of the animals. In event-driven mode the
+     *         state of all animals is brought up to date first.
+     */
+    public AnimalStore getStore() {
+        if (eventDriven) {
+            settleAll();
+        }
+        return store;
+    }
+
+    /**
+     * Set the seed from which the random streams of the bulk-synchronous steps are derived
+     * (see Randomizer.deriveSeed). By default it is taken when the system is created.
+     *
+     * @param seed The seed of the simulation.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Choose whether the animals are event-driven (see above). The animals of the system
+     * keep their state.
+     *
+     * @param enabled True for event-driven animals, false to update them every step.
+     */
+    public void setEventDriven(boolean enabled) {
+        if (enabled == eventDriven) {
+            return;
+        }
+        if (eventDriven) {
+            settleAll();
+        }
+        eventDriven = enabled;
+        if (enabled) {
+            resetClocks();
+            Random rand = Randomizer.getRandom();
+            for (int i = 0; i < store.size(); i++) {
+                int id = store.getId(i);
+                if (store.alive[id]) {
+                    schedule(id, rand);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return True if the animals are event-driven.
+     */
+    public boolean isEventDriven() {
+        return eventDriven;
+    }
+
+    /**
+     * Remove all the animals from the system. The field is not changed.
+     */
+    public void clear() {
+        store.clear();
+        resetClocks();
+    }
+
+    /**
+     * Create an animal and place it in the field, like the constructor of Animal does.
+     *
+     * @param species The species of the animal.
+     * @param location Where to place the animal. Must not hold another animal.
+     * @param randomAge If true the animal has a random age and food level,
+     *                  otherwise it is a newborn.
+     * @return The ID of the animal.
+     */
+    public int spawn(Species species, Location location, boolean randomAge) {
+        Random rand = Randomizer.getRandom();
+        int s = species.ordinal();
+        char gender = rand.nextBoolean() ? 'F' : 'M';
+        int age = 0;
+        int foodLevel;
+        if (randomAge) {
+            age = rand.nextInt(table.maxAge[s]);
+            foodLevel = rand.nextInt(table.maxFoodValue[s]);
+        }
+        else {
+            foodLevel = table.maxFoodValue[s];
+            field.getVitalStatistics().recordBirth();
+        }
+        return restore(species, location, age, gender, table.daysToWait[s], foodLevel, 0);
+    }
+
+    /**
+     * Place an animal with the given state in the field, e.g. when the simulation is
+     * restored from a snapshot.
+     *
+     * @param species The species of the animal.
+     * @param location Where to place the animal. Must not hold another animal.
+     * @param age The age of the animal.
+     * @param gender 'F' for female, 'M' for male.
+     * @param breedCounter Steps since the last breeding.
+     * @param foodLevel The food level of the animal.
+     * @param disease The aging factor of the animal's disease, 0 if it is healthy.
+     * @return The ID of the animal.
+     */
+    public int restore(Species species, Location location, int age, char gender, int breedCounter,
+                       int foodLevel, int disease) {
+        field.place(species, location);
+        if (disease != 0) {
+            field.setSick(location);
+        }
+        int id = store.add(species, cell(location.getRow(), location.getCol()), age, gender,
+                breedCounter, foodLevel, disease);
+        if (eventDriven) {
+            schedule(id, Randomizer.getRandom());
+        }
+        return id;
+    }
+
+    /**
+     * Let all the animals that are awake act. Animals born during the step
+     * first act in the next step.
+     *
+     * @param newActors Not used, newborn animals are added to the store.
+     * @see Actor
+     */
+    @Override
+    public void act(List<Actor> newActors) {
+        boolean[][] asleep = table.asleep;
+        int hour = environment.getHourOfDay();
+        if (eventDriven) {
+            for (int s = 0; s < SPECIES.length; s++) {
+                if (!asleep[s][hour]) {
+                    wheels[s].advance(handlers[s]);
+                }
+            }
+        }
+        int n = store.size();
+        for (int i = 0; i < n; i++) {
+            int id = store.getId(i);
+            if (store.alive[id] && !asleep[store.species[id]][hour]) {
+                if (eventDriven) {
+                    interact(id, store.species[id], Randomizer.getRandom());
+                }
+                else {
+                    act(id);
+                }
+            }
+        }
+        store.compact();
+    }
+
+    /**
+     * The system stays in the simulation even when all its animals are dead.
+     *
+     * @return True.
+     * @see Actor
+     */
+    @Override
+    public boolean isActive() {
+        return true;
+    }
+
+    /**
+     * Start a bulk-synchronous step: the animals that are awake will make proposals.
+     *
+     * @return The number of proposals to be made, by calling propose.
+     * @throws IllegalStateException If the animals are event-driven.
+     */
+    public int prepareProposals() {
+        if (eventDriven) {
+            throw new IllegalStateException("Event-driven animals cannot act bulk-synchronously.");
+        }
+        boolean[][] asleep = table.asleep;
+        int hour = environment.getHourOfDay();
+        int n = store.size();
+        if (proposers.length < n) {
+            growProposals(n);
+        }
+        proposalCount = 0;
+        for (int i = 0; i < n; i++) {
+            int id = store.getId(i);
+            if (store.alive[id] && !asleep[store.species[id]][hour]) {
+                proposers[proposalCount++] = id;
+            }
+        }
+        return proposalCount;
+    }
+
+    /**
+     * Let some of the awake animals make their proposals (see Animal.act). Only the
+     * buffers of the proposals are written, so different parts of the proposals can be
+     * made concurrently on different threads.
+     *
+     * @param from The first proposal to be made.
+     * @param to The proposal after the last one to be made.
+     * @param step The number of the current step.
+     * @param rand A random stream, which must be bound to the current thread (see Randomizer.bind).
+     */
+    public void propose(int from, int to, int step, RandomStream rand) {
+        for (int k = from; k < to; k++) {
+            int id = proposers[k];
+            rand.setSeed(Randomizer.deriveSeed(seed, step, store.cell[id]));
+            propose(k, id, rand);
+        }
+    }
+
+    /**
+     * Commit the proposals made during the current step, in a random order of priority.
+     * Conflicting proposals that come later are not carried out: an animal that cannot move
+     * stays where it is, and newborns that cannot be placed are not born.
+     *
+     * @param step The number of the current step.
+     */
+    public void commitProposals(int step) {
+        for (int k = 0; k < proposalCount; k++) {
+            long priority = RandomStream.mix(Randomizer.deriveSeed(seed, step, PRIORITY_KEY) + store.cell[proposers[k]]);
+            order[k] = priority & 0xFFFFFFFF00000000L | k;
+        }
+        Arrays.sort(order, 0, proposalCount);
+        for (int i = 0; i < proposalCount; i++) {
+            commit((int) order[i]);
+        }
+        store.compact();
+    }
+
+    /**
+     * Let an animal act (see Animal.act).
+     *
+     * @param id The ID of the animal.
+     */
+    private void act(int id) {
+        Random rand = Randomizer.getRandom();
+        int s = store.species[id];
+
+        // Get older, sick animals more quickly.
+        if (store.disease[id] != 0) {
+            store.age[id] += table.maxAge[s] / store.disease[id];
+        }
+        else {
+            store.age[id]++;
+        }
+        if (store.age[id] > table.maxAge[s]) {
+            die(id, store.disease[id] != 0 ? DeathCause.DISEASE : DeathCause.OLD_AGE);
+        }
+        if (store.breedCounter[id] < table.daysToWait[s] && store.gender[id] == 'F') {
+            store.breedCounter[id]++;
+        }
+        // Get more hungry.
+        store.foodLevel[id]--;
+        if (store.foodLevel[id] <= 0) {
+            die(id, DeathCause.STARVATION);
+        }
+        if (!store.alive[id]) {
+            return;
+        }
+
+        if (rand.nextDouble() <= table.diseaseProbability[s]) {
+            setDisease(id, DISEASE_AGING_FACTOR);
+        }
+        interact(id, s, rand);
+    }
+
+    /**
+     * Let an animal do what depends on its neighbours: catch their disease, breed,
+     * eat and move.
+     *
+     * @param id The ID of the animal.
+     * @param s The species of the animal.
+     * @param rand The random generator of the simulation.
+     */
+    private void interact(int id, int s, Random rand) {
+        checkForDisease(id, s, rand);
+        giveBirth(id, s, rand);
+        int target = AnimalStore.NONE;
+        if (table.preyMask[s] != 0) {
+            target = hunt(id, s, rand);
+        }
+        if (target == AnimalStore.NONE && table.eatsPlants[s]) {
+            target = findPlants(id);
+        }
+        if (target == AnimalStore.NONE) {
+            Neighbourhood neighbours = neighbours(id);
+            if (neighbours.nextFree()) {
+                target = cell(neighbours.getRow(), neighbours.getCol());
+            }
+        }
+        if (target != AnimalStore.NONE) {
+            move(id, target);
+        }
+        else {
+            die(id, DeathCause.OVERCROWDING);
+        }
+    }
+
+    /**
+     * Make the proposal of an animal, mirroring act(id) but reading only the state at
+     * the start of the step.
+     *
+     * @param k The position of the proposal.
+     * @param id The ID of the animal.
+     * @param rand The random stream of the animal.
+     */
+    private void propose(int k, int id, Random rand) {
+        int s = store.species[id];
+        int age = store.age[id];
+        int disease = store.disease[id];
+        int breedCounter = store.breedCounter[id];
+        int foodLevel = store.foodLevel[id] - 1;
+        age += disease != 0 ? table.maxAge[s] / disease : 1;
+        if (breedCounter < table.daysToWait[s] && store.gender[id] == 'F') {
+            breedCounter++;
+        }
+        births[k] = 0;
+        if (age > table.maxAge[s] || foodLevel <= 0) {
+            action[k] = DIE;
+            DeathCause cause = age > table.maxAge[s]
+                    ? (disease != 0 ? DeathCause.DISEASE : DeathCause.OLD_AGE) : DeathCause.STARVATION;
+            target[k] = cause.ordinal();
+            return;
+        }
+
+        if (rand.nextDouble() <= table.diseaseProbability[s]) {
+            disease = DISEASE_AGING_FACTOR;
+        }
+        Location location = location(store.cell[id]);
+        if (rand.nextDouble() <= table.diseaseProbability[s]) {
+            Neighbourhood neighbours = field.neighbours(location);
+            int sick = field.getSickNeighbours(location.getRow(), location.getCol());
+            while (neighbours.nextIn(sick)) {
+                int other = store.idAt[cell(neighbours.getRow(), neighbours.getCol())];
+                if (other != AnimalStore.NONE && store.disease[other] != 0) {
+                    disease = store.disease[other];
+                    break;
+                }
+            }
+        }
+
+        if (findMate(id, s)) {
+            Neighbourhood free = neighbours(id);
+            int count = 0;
+            if (age >= table.breedingAge[s] && breedCounter == table.daysToWait[s] && disease == 0
+                    && foodLevel > table.maxFoodValue[s] / 4
+                    && rand.nextDouble() <= table.breedingProbability[s]) {
+                count = rand.nextInt(table.maxLitterSize[s]) + 1;
+                breedCounter = 0;
+            }
+            int b = 0;
+            for (; b < count && free.nextFree(); b++) {
+                birthCells[k * MAX_BIRTHS + b] = cell(free.getRow(), free.getCol());
+                birthGenders[k * MAX_BIRTHS + b] = rand.nextBoolean() ? 'F' : 'M';
+            }
+            births[k] = b;
+        }
+
+        action[k] = DIE;
+        target[k] = DeathCause.OVERCROWDING.ordinal();
+        if (table.preyMask[s] != 0) {
+            int preyMask = table.preyMask[s];
+            Weather weather = environment.getWeather();
+            Neighbourhood neighbours = field.neighbours(location);
+            int preyCells = field.getNeighbours(preyMask, location.getRow(), location.getCol());
+            while (neighbours.next() && weather.getVision() >= rand.nextDouble()) {
+                if (!neighbours.isIn(preyCells)) {
+                    continue;
+                }
+                int cell = cell(neighbours.getRow(), neighbours.getCol());
+                int other = store.idAt[cell];
+                if (other != AnimalStore.NONE && (preyMask & 1 << store.species[other]) != 0) {
+                    action[k] = EAT_PREY;
+                    target[k] = cell;
+                    prey[k] = other;
+                    foodGain[k] = table.foodValue[store.species[other]];
+                    break;
+                }
+            }
+        }
+        if (action[k] == DIE && table.eatsPlants[s]) {
+            Neighbourhood neighbours = field.neighbours(location);
+            int plants = field.getReachablePlants(location.getRow(), location.getCol());
+            while (neighbours.nextIn(plants)) {
+                int cell = cell(neighbours.getRow(), neighbours.getCol());
+                int foodValue = field.getPlantFoodValue(neighbours.getRow(), neighbours.getCol());
+                if (foodValue >= 0) {
+                    action[k] = EAT_PLANT;
+                    target[k] = cell;
+                    foodGain[k] = foodValue;
+                    break;
+                }
+            }
+        }
+        if (action[k] == DIE) {
+            Neighbourhood neighbours = neighbours(id);
+            if (neighbours.nextFree()) {
+                action[k] = MOVE;
+                target[k] = cell(neighbours.getRow(), neighbours.getCol());
+            }
+        }
+
+        nextAge[k] = age;
+        nextFoodLevel[k] = foodLevel;
+        nextBreedCounter[k] = breedCounter;
+        nextDisease[k] = disease;
+    }
+
+    /**
+     * Carry out a proposal, as far as it does not conflict with the ones committed before.
+     *
+     * @param k The position of the proposal.
+     */
+    private void commit(int k) {
+        int id = proposers[k];
+        if (!store.alive[id]) {
+            // Eaten before its turn.
+            return;
+        }
+        if (action[k] == DIE && target[k] != DeathCause.OVERCROWDING.ordinal()) {
+            die(id, CAUSES[target[k]]);
+            return;
+        }
+        int s = store.species[id];
+        store.age[id] = nextAge[k];
+        store.foodLevel[id] = nextFoodLevel[k];
+        store.breedCounter[id] = nextBreedCounter[k];
+        store.disease[id] = nextDisease[k];
+        if (nextDisease[k] != 0) {
+            field.setSick(location(store.cell[id]));
+        }
+
+        for (int b = 0; b < births[k]; b++) {
+            int cell = birthCells[k * MAX_BIRTHS + b];
+            if (store.idAt[cell] == AnimalStore.NONE) {
+                field.getVitalStatistics().recordBirth();
+                restore(SPECIES[s], location(cell), 0, birthGenders[k * MAX_BIRTHS + b],
+                        table.daysToWait[s], table.maxFoodValue[s], 0);
+            }
+        }
+
+        int cell = target[k];
+        if (action[k] == DIE) {
+            die(id, DeathCause.OVERCROWDING);
+        }
+        else if (action[k] == EAT_PREY) {
+            // The prey must still be in the cell the hunter saw it in: it may have moved away
+            // or been eaten since, and its ID may then belong to an animal born elsewhere.
+            if (store.alive[prey[k]] && store.idAt[cell] == prey[k]) {
+                die(prey[k], DeathCause.PREDATION);
+                eat(id, s, foodGain[k]);
+                move(id, cell);
+            }
+        }
+        else if (store.idAt[cell] == AnimalStore.NONE) {
+            if (action[k] == EAT_PLANT) {
+                if (field.eatPlant(cell / field.getWidth(), cell % field.getWidth()) < 0) {
+                    return;
+                }
+                eat(id, s, foodGain[k]);
+            }
+            move(id, cell);
+        }
+    }
+
+    /**
+     * Enlarge the buffers of the proposals.
+     *
+     * @param capacity The number of proposals the buffers must hold.
+     */
+    private void growProposals(int capacity) {
+        capacity = Math.max(capacity, proposers.length * 2);
+        proposers = new int[capacity];
+        nextAge = new int[capacity];
+        nextFoodLevel = new int[capacity];
+        nextBreedCounter = new int[capacity];
+        nextDisease = new int[capacity];
+        action = new byte[capacity];
+        target = new int[capacity];
+        prey = new int[capacity];
+        foodGain = new int[capacity];
+        births = new int[capacity];
+        birthCells = new int[capacity * MAX_BIRTHS];
+        birthGenders = new char[capacity * MAX_BIRTHS];
+        order = new long[capacity];
+    }
+
+    /**
+     * Catch the disease of a sick neighbour, with the probability of the species.
+     */
+    private void checkForDisease(int id, int s, Random rand) {
+        if (rand.nextDouble() > table.diseaseProbability[s]) {
+            return;
+        }
+        Location location = location(store.cell[id]);
+        Neighbourhood neighbours = field.neighbours(location);
+        int sick = field.getSickNeighbours(location.getRow(), location.getCol());
+        while (neighbours.nextIn(sick)) {
+            int other = store.idAt[cell(neighbours.getRow(), neighbours.getCol())];
+            if (other != AnimalStore.NONE && store.disease[other] != 0) {
+                setDisease(id, store.disease[other]);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Give birth to newborns in free adjacent cells, if there is a mate nearby.
+     */
+    private void giveBirth(int id, int s, Random rand) {
+        if (!findMate(id, s)) {
+            return;
+        }
+        Neighbourhood free = neighbours(id);
+        int births = 0;
+        if (canBreed(id, s) && rand.nextDouble() <= table.breedingProbability[s]) {
+            births = rand.nextInt(table.maxLitterSize[s]) + 1;
+            settle(id);
+            store.breedCounter[id] = 0;
+        }
+        Species species = SPECIES[s];
+        for (int b = 0; b < births && free.nextFree(); b++) {
+            spawn(species, free.getLocation(), false);
+        }
+    }
+
+    /**
+     * @return True if an adjacent animal of the same species and of the opposite
+     *         gender can breed.
+     */
+    private boolean findMate(int id, int s) {
+        Location location = location(store.cell[id]);
+        Neighbourhood neighbours = field.neighbours(location);
+        int mates = field.getNeighbours(SPECIES[s], location.getRow(), location.getCol());
+        while (neighbours.nextIn(mates)) {
+            int mate = store.idAt[cell(neighbours.getRow(), neighbours.getCol())];
+            if (mate != AnimalStore.NONE && store.species[mate] == s && store.alive[mate]
+                    && canBreed(mate, s) && store.gender[mate] != store.gender[id]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return True if the animal is old enough, has waited long enough since
+     *         the last breeding, is healthy and is not too hungry.
+     */
+    private boolean canBreed(int id, int s) {
+        return age(id) >= table.breedingAge[s]
+                && breedCounter(id) == table.daysToWait[s]
+                && store.disease[id] == 0
+                && foodLevel(id) > table.maxFoodValue[s] / 4;
+    }
+
+    /**
+     * Look for prey in the adjacent cells, as far as the weather allows, and eat it.
+     *
+     * @return The cell of the eaten prey, NONE if no prey was found.
+     */
+    private int hunt(int id, int s, Random rand) {
+        int preyMask = table.preyMask[s];
+        Weather weather = environment.getWeather();
+        Location location = location(store.cell[id]);
+        Neighbourhood neighbours = field.neighbours(location);
+        int preyCells = field.getNeighbours(preyMask, location.getRow(), location.getCol());
+        while (neighbours.next() && weather.getVision() >= rand.nextDouble()) {
+            if (!neighbours.isIn(preyCells)) {
+                continue;
+            }
+            int target = cell(neighbours.getRow(), neighbours.getCol());
+            int prey = store.idAt[target];
+            if (prey != AnimalStore.NONE && (preyMask & 1 << store.species[prey]) != 0 && store.alive[prey]) {
+                die(prey, DeathCause.PREDATION);
+                eat(id, s, table.foodValue[store.species[prey]]);
+                return target;
+            }
+        }
+        return AnimalStore.NONE;
+    }
+
+    /**
+     * Look for a plant in the adjacent cells without an animal and eat it.
+     *
+     * @return The cell of the eaten plant, NONE if no plant was found.
+     */
+    private int findPlants(int id) {
+        Location location = location(store.cell[id]);
+        Neighbourhood neighbours = field.neighbours(location);
+        int plants = field.getReachablePlants(location.getRow(), location.getCol());
+        while (neighbours.nextIn(plants)) {
+            int foodValue = field.eatPlant(neighbours.getRow(), neighbours.getCol());
+            if (foodValue >= 0) {
+                eat(id, store.species[id], foodValue);
+                return cell(neighbours.getRow(), neighbours.getCol());
+            }
+        }
+        return AnimalStore.NONE;
+    }
+
+    /**
+     * Increase the food level of an animal, up to the maximum of its species.
+     */
+    private void eat(int id, int s, int foodValue) {
+        settle(id);
+        store.foodLevel[id] = Math.min(store.foodLevel[id] + foodValue, table.maxFoodValue[s]);
+    }
+
+    /**
+     * Give an animal a disease, which makes it age more quickly. An event-driven
+     * animal may then die earlier.
+     */
+    private void setDisease(int id, int disease) {
+        settle(id);
+        store.disease[id] = disease;
+        field.setSick(location(store.cell[id]));
+        if (eventDriven) {
+            int due = Math.max(deathTick(id), wheels[store.species[id]].now() + 1);
+            if (due < deathDue[id]) {
+                deathDue[id] = due;
+                wheels[store.species[id]].schedule(due, id * 2);
+            }
+        }
+    }
+
+    /**
+     * @return The current age of an animal.
+     */
+    private int age(int id) {
+        return store.age[id] + ticksSinceSettled(id) * agingRate(id);
+    }
+
+    /**
+     * @return The current food level of an animal.
+     */
+    private int foodLevel(int id) {
+        return store.foodLevel[id] - ticksSinceSettled(id);
+    }
+
+    /**
+     * @return The current number of steps since an animal last bred. Only females count them.
+     */
+    private int breedCounter(int id) {
+        int breedCounter = store.breedCounter[id];
+        int daysToWait = table.daysToWait[store.species[id]];
+        if (breedCounter < daysToWait && store.gender[id] == 'F') {
+            breedCounter = Math.min(breedCounter + ticksSinceSettled(id), daysToWait);
+        }
+        return breedCounter;
+    }
+
+    /**
+     * @return The ticks of the animal's species since the state of the animal was
+     *         last brought up to date, 0 if it is not event-driven.
+     */
+    private int ticksSinceSettled(int id) {
+        return eventDriven ? wheels[store.species[id]].now() - settled[id] : 0;
+    }
+
+    /**
+     * @return How much older an animal gets in a step in which it is awake.
+     */
+    private int agingRate(int id) {
+        int disease = store.disease[id];
+        return disease != 0 ? table.maxAge[store.species[id]] / disease : 1;
+    }
+
+    /**
+     * Bring the stored state of an event-driven animal up to date, e.g. before it changes.
+     */
+    private void settle(int id) {
+        int ticks = ticksSinceSettled(id);
+        if (ticks != 0) {
+            store.age[id] = age(id);
+            store.foodLevel[id] = foodLevel(id);
+            store.breedCounter[id] = breedCounter(id);
+            settled[id] += ticks;
+        }
+    }
+
+    /**
+     * Bring the stored state of all event-driven animals up to date.
+     */
+    private void settleAll() {
+        for (int i = 0; i < store.size(); i++) {
+            int id = store.getId(i);
+            if (store.alive[id]) {
+                settle(id);
+            }
+        }
+    }
+
+    /**
+     * Remove all events and set the clocks of the species back to tick 0.
+     */
+    private void resetClocks() {
+        for (TimingWheel wheel : wheels) {
+            wheel.clear();
+        }
+    }
+
+    /**
+     * Schedule the death of an event-driven animal, whose state is up to date, and the
+     * disease it will catch by itself, if it catches it before it dies of old age.
+     *
+     * @param id The ID of the animal.
+     * @param rand The random generator of the simulation.
+     */
+    private void schedule(int id, Random rand) {
+        if (id >= settled.length) {
+            int capacity = Math.max(id + 1, settled.length * 2);
+            settled = Arrays.copyOf(settled, capacity);
+            deathDue = Arrays.copyOf(deathDue, capacity);
+            diseaseDue = Arrays.copyOf(diseaseDue, capacity);
+        }
+        int s = store.species[id];
+        TimingWheel wheel = wheels[s];
+        settled[id] = wheel.now();
+        // An animal that is already starving dies in its next step.
+        deathDue[id] = Math.max(deathTick(id), settled[id] + 1);
+        wheel.schedule(deathDue[id], id * 2);
+
+        // The animal catches the disease in each tick with the same probability, so the
+        // number of ticks until it does follows a geometric distribution.
+        diseaseDue[id] = Integer.MAX_VALUE;
+        double probability = table.diseaseProbability[s];
+        if (store.disease[id] == 0 && probability > 0) {
+            double ticks = 1;
+            if (probability < 1) {
+                ticks += Math.floor(Math.log(1 - rand.nextDouble()) / Math.log(1 - probability));
+            }
+            if (ticks < agingDeathTick(id) - settled[id]) {
+                diseaseDue[id] = settled[id] + (int) ticks;
+                wheel.schedule(diseaseDue[id], id * 2 + 1);
+            }
+        }
+    }
+
+    /**
+     * Fire an event of an event-driven animal: its death or its disease. Events that are
+     * no longer valid are ignored, and a death that was delayed by eating is rescheduled.
+     *
+     * @param s The species whose clock ticked.
+     * @param event The ID of the animal times two, plus one for catching a disease.
+     */
+    private void fire(int s, int event) {
+        int id = event >> 1;
+        int now = wheels[s].now();
+        if (!store.alive[id] || store.species[id] != s) {
+            return;
+        }
+        if ((event & 1) != 0) {
+            if (diseaseDue[id] == now && store.disease[id] == 0 && deathTick(id) > now) {
+                setDisease(id, DISEASE_AGING_FACTOR);
+            }
+            return;
+        }
+        if (deathDue[id] != now) {
+            return;
+        }
+        int due = deathTick(id);
+        if (due > now) {
+            deathDue[id] = due;
+            wheels[s].schedule(due, event);
+        }
+        else if (agingDeathTick(id) <= now) {
+            die(id, store.disease[id] != 0 ? DeathCause.DISEASE : DeathCause.OLD_AGE);
+        }
+        else {
+            die(id, DeathCause.STARVATION);
+        }
+    }
+
+    /**
+     * @return The tick of its species' clock at which an event-driven animal will die,
+     *         of old age or starvation, unless it eats or catches a disease before.
+     */
+    private int deathTick(int id) {
+        return Math.min(agingDeathTick(id), settled[id] + store.foodLevel[id]);
+    }
+
+    /**
+     * @return The tick of its species' clock at which an event-driven animal will die
+     *         of old age, unless it catches a disease before.
+     */
+    private int agingDeathTick(int id) {
+        int rate = agingRate(id);
+        if (rate <= 0) {
+            return Integer.MAX_VALUE;
+        }
+        long ticks = Math.floorDiv(table.maxAge[store.species[id]] - store.age[id], rate) + 1L;
+        return (int) Math.min(settled[id] + ticks, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Move an animal to another cell of the field.
+     */
+    private void move(int id, int target) {
+        field.clear(location(store.cell[id]));
+        store.move(id, target);
+        field.place(SPECIES[store.species[id]], location(target));
+        if (store.disease[id] != 0) {
+            field.setSick(location(target));
+        }
+    }
+
+    /**
+     * Kill an animal and remove it from the field.
+     */
+    private void die(int id, DeathCause cause) {
+        if (!store.alive[id]) {
+            return;
+        }
+        field.getVitalStatistics().recordDeath(cause);
+        field.clear(location(store.cell[id]));
+        store.kill(id);
+    }
+
+    /**
+     * @return A cursor over the cells adjacent to the animal.
+     */
+    private Neighbourhood neighbours(int id) {
+        return field.neighbours(location(store.cell[id]));
+    }
+
+    /**
+     * @return The location of a cell.
+     */
+    private Location location(int cell) {
+        return field.getLocation(cell / field.getWidth(), cell % field.getWidth());
+    }
+
+    /**
+     * @return The cell of a location, given by its coordinates.
+     */
+    private int cell(int row, int col) {
+        return row * field.getWidth() + col;
+    }
+}
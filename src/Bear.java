@@ -9,26 +9,7 @@ import java.util.List;
  */
 public class Bear extends Animal implements Predator, Herbivore, Drawable  {
 
-    // Characteristics shared by all bears (class variables).
-
-    // The age at which a bear can start to breed.
-    private static final int BREEDING_AGE = 10;
-    // The age to which a bear can live.
-    private static final int MAX_AGE = 200;
-    // The likelihood of a bear breeding.
-    private static final double BREEDING_PROBABILITY = 0.59;
-    // The maximum number of births.
-    private static final int MAX_LITTER_SIZE = 2;
-    // The food value of a single bear.
-    private static final int BEAR_FOOD_VALUE = 23;
-    // The probability of getting sick.
-    private static final double DISEASE_PROBABILITY = 0.009;
-    // Max food value of a bear.
-    private static final int MAX_FOOD_VALUE = 18;
-    // Steps a bear needs to wait before it can breed again.
-    private static final int DAYS_TO_WAIT = 8;
-    // List of species of animals that are hunted by bears.
-    private static final Class[] huntedAnimals = { Fox.class, Rabbit.class };
+    // The parameters of bears, including the species they eat, are defined in their SpeciesProfile.
 
     /**
      * Create a bear. A bear can be created as a new born (age zero
@@ -47,64 +28,8 @@ public class Bear extends Animal implements Predator, Herbivore, Drawable  {
      * @see Animal
      */
     @Override
-    public int getMaxAge(){
-        return MAX_AGE;
-    }
-
-    /**
-     * @see Animal
-     */
-    @Override
-    protected double getBreedingProbability(){
-        return BREEDING_PROBABILITY;
-    }
-
-    /**
-     * @see Animal
-     */
-    @Override
-    protected int getBreedingAge(){
-        return BREEDING_AGE;
-    }
-
-    /**
-     * @see Animal
-     */
-    @Override
-    protected int getMaxLitterSize(){
-        return MAX_LITTER_SIZE;
-    }
-
-    /**
-     * @see Animal
-     */
-    @Override
-    protected int getDaysToWait(){
-        return DAYS_TO_WAIT;
-    }
-
-    /**
-     * @see Animal
-     */
-    @Override
-    protected int getMaxFoodValue(){
-        return MAX_FOOD_VALUE;
-    }
-
-    /**
-     * @see Animal
-     */
-    @Override
-    protected double getDiseaseProbability() {
-        return DISEASE_PROBABILITY;
-    }
-
-    /**
-     * @see Animal
-     */
-    @Override
-    protected int getFoodValue(){
-        return BEAR_FOOD_VALUE;
+    public Species getSpecies(){
+        return Species.BEAR;
     }
 
     /**
@@ -123,14 +48,6 @@ public class Bear extends Animal implements Predator, Herbivore, Drawable  {
         return loc;
     }
 
-    /**
-     * @see Predator
-     */
-    @Override
-    public Class[] getHuntedAnimals(){
-        return huntedAnimals;
-    }
-
 
     // OTHER METHODS:
 
@@ -145,11 +62,10 @@ public class Bear extends Animal implements Predator, Herbivore, Drawable  {
         }
 
         Field field = getField();
-        List<Location> free = field.getFreeAdjacentLocations(getLocation());
+        Neighbourhood free = field.neighbours(getLocation());
         int births = breed();
-        for(int b = 0; b < births && free.size() > 0; b++) {
-            Location loc = free.remove(0);
-            Bear young = new Bear(false, field, loc, getEnvironment());
+        for(int b = 0; b < births && free.nextFree(); b++) {
+            Bear young = new Bear(false, field, free.getLocation(), getEnvironment());
             newBears.add(young);
         }
     }
@@ -0,0 +1,170 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * A set of cells of a field stored as a bitmap with a row of bits for every row of the
+ * field, so that which of the eight cells around a cell are in the set can be found with a
+ * few shifts and masks instead of looking at each of them. Every row starts at a word and
+ * has an unused column on both sides, so the columns next to a cell never reach into
+ * another row, and cells outside the field are never in the set.
+ *
+ * The cells around a cell are given as a mask of 8 bits, with bit i standing for the
+ * i-th offset of Neighbourhood, so the mask can be used to visit those cells in a random
+ * order (see Neighbourhood.nextIn).
+ *
+ * Cells can be added and removed from several threads at the same time, e.g. while
+ * the actors of several parts of the field act in parallel. Masks must not be read at the
+ * same time as changes to the cells around them.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+public class BitGrid {
+    // Atomic access to the elements of the word array.
+    private static final VarHandle WORD = MethodHandles.arrayElementVarHandle(long[].class);
+    // The mask of the offsets of the row above, the cells left and right, and the row below.
+    private static final int ABOVE = 0b00000111;
+    private static final int BELOW = 0b11100000;
+    // The mask of the offsets in the column left of the cell, and right of it.
+    private static final int LEFT = 0b00101001;
+    private static final int RIGHT = 0b10010100;
+    private static final int ALL = 0b11111111;
+
+    // The depth and width of the field.
+    private final int depth, width;
+    // The number of bits of each row, a multiple of 64.
+    private final int rowBits;
+    // One bit for each cell, and the unused columns.
+    private final long[] words;
+
+    /**
+     * Create an empty grid.
+     *
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     */
+    public BitGrid(int depth, int width) {
+        this.depth = depth;
+        this.width = width;
+        rowBits = (width + 2 + 63) & ~63;
+        words = new long[depth * (rowBits >>> 6)];
+    }
+
+    /**
+     * Add a cell to the grid.
+     *
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     */
+    public void set(int row, int col) {
+        int bit = bit(row, col);
+        long mask = 1L << bit;
+        if ((words[bit >>> 6] & mask) == 0) {
+            WORD.getAndBitwiseOr(words, bit >>> 6, mask);
+        }
+    }
+
+    /**
+     * Remove a cell from the grid.
+     *
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     */
+    public void clear(int row, int col) {
+        int bit = bit(row, col);
+        long mask = 1L << bit;
+        if ((words[bit >>> 6] & mask) != 0) {
+            WORD.getAndBitwiseAnd(words, bit >>> 6, ~mask);
+        }
+    }
+
+    /**
+     * @param row The row of a cell.
+     * @param col The column of a cell.
+     * @return True if the cell is in the grid.
+     */
+    public boolean get(int row, int col) {
+        int bit = bit(row, col);
+        return (words[bit >>> 6] & 1L << bit) != 0;
+    }
+
+    /**
+     * Remove all cells from the grid.
+     */
+    public void clear() {
+        Arrays.fill(words, 0);
+    }
+
+    /**
+     * @param row The row of a cell.
+     * @param col The column of a cell.
+     * @return The mask of the cells around the cell that are in the grid.
+     */
+    public int neighbours(int row, int col) {
+        int mask = 0;
+        if (row > 0) {
+            mask = threeColumns(row - 1, col);
+        }
+        int middle = threeColumns(row, col);
+        mask |= (middle & 1) << 3 | (middle & 4) << 2;
+        if (row < depth - 1) {
+            mask |= threeColumns(row + 1, col) << 5;
+        }
+        return mask;
+    }
+
+    /**
+     * @param row The row of a cell.
+     * @param col The column of a cell.
+     * @return The mask of the cells around the cell that lie within the field and are
+     *         not in the grid.
+     */
+    public int free(int row, int col) {
+        return ~neighbours(row, col) & inside(row, col);
+    }
+
+    /**
+     * @param row The row of a cell.
+     * @param col The column of a cell.
+     * @return The mask of the cells around the cell that lie within the field.
+     */
+    private int inside(int row, int col) {
+        int mask = ALL;
+        if (row == 0) {
+            mask &= ~ABOVE;
+        }
+        if (row == depth - 1) {
+            mask &= ~BELOW;
+        }
+        if (col == 0) {
+            mask &= ~LEFT;
+        }
+        if (col == width - 1) {
+            mask &= ~RIGHT;
+        }
+        return mask;
+    }
+
+    /**
+     * @return The bits of the cells left of, at and right of the given one, in this order.
+     */
+    private int threeColumns(int row, int col) {
+        // The bit of the cell left of the given one, which may be the unused column.
+        int bit = row * rowBits + col;
+        int w = bit >>> 6;
+        int shift = bit & 63;
+        long bits = words[w] >>> shift;
+        if (shift > 61) {
+            bits |= words[w + 1] << 64 - shift;
+        }
+        return (int) bits & 7;
+    }
+
+    /**
+     * @return The position of the bit of a cell.
+     */
+    private int bit(int row, int col) {
+        return row * rowBits + col + 1;
+    }
+}
@@ -0,0 +1,99 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A cheap randomised scheduler. The list of actors placed in the field is cut into
+ * blocks of consecutive actors; before every step the blocks are put in a random order, and each block is
+ * rotated so that it starts from a random actor. Only two random numbers are needed per
+ * block, and the list is copied out and back in sequentially. Actors that are close in the list
+ * still act close together, but no actor always acts before the others.
+ *
+ * The actors are copied as plain references, in arrays of Object: copying them into an
+ * array of Actor would check the class of every actor, and the actors are scattered in
+ * memory, so that would cost about one cache miss per actor.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+public class BlockRotatedOrder implements Scheduler {
+    // The default number of actors in a block.
+    private static final int DEFAULT_BLOCK_SIZE = 256;
+
+    // The number of actors in a block.
+    private int blockSize;
+    // The order of the blocks.
+    private int[] blockOrder;
+    // The actors in their current order, and in their new order.
+    private Object[] source;
+    private Object[] buffer;
+
+    /**
+     * Create a scheduler with the default block size.
+     */
+    public BlockRotatedOrder() {
+        this(DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Create a scheduler.
+     *
+     * @param blockSize The number of actors in a block. Must be at least 1.
+     */
+    public BlockRotatedOrder(int blockSize) {
+        if (blockSize < 1) {
+            System.out.println("The block size must be at least one.");
+            System.out.println("Using default value (" + DEFAULT_BLOCK_SIZE + ").");
+            blockSize = DEFAULT_BLOCK_SIZE;
+        }
+        this.blockSize = blockSize;
+        blockOrder = new int[0];
+        source = new Object[0];
+        buffer = new Object[0];
+    }
+
+    /**
+     * @see Scheduler
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean schedule(List<Actor> actors, Field field, int step) {
+        int first = Scheduler.countUnplaced(actors);
+        int n = actors.size() - first;
+        int blocks = (n + blockSize - 1) / blockSize;
+        if (blockOrder.length < blocks) {
+            blockOrder = new int[blocks];
+        }
+        if (buffer.length < n) {
+            source = new Object[n];
+            buffer = new Object[n];
+        }
+
+        // Shuffle the blocks (inside-out Fisher-Yates).
+        Random rand = Randomizer.getRandom();
+        for (int i = 0; i < blocks; i++) {
+            int j = rand.nextInt(i + 1);
+            blockOrder[i] = blockOrder[j];
+            blockOrder[j] = i;
+        }
+
+        // The placed actors seen as plain references, which are never cast to Actor.
+        List<Object> placed = (List<Object>) (List<?>) actors.subList(first, first + n);
+        placed.toArray(source);
+        int position = 0;
+        for (int i = 0; i < blocks; i++) {
+            int start = blockOrder[i] * blockSize;
+            int length = Math.min(blockSize, n - start);
+            int rotation = rand.nextInt(length);
+            System.arraycopy(source, start + rotation, buffer, position, length - rotation);
+            System.arraycopy(source, start, buffer, position + length - rotation, rotation);
+            position += length;
+        }
+        for (int i = 0; i < n; i++) {
+            placed.set(i, buffer[i]);
+        }
+        Arrays.fill(source, 0, n, null);
+        Arrays.fill(buffer, 0, n, null);
+        return true;
+    }
+}
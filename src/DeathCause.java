@@ -0,0 +1,18 @@
+/**
+ * Enumerate the reasons for which an animal can die.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+public enum DeathCause {
+    // The animal's food level dropped to zero.
+    STARVATION,
+    // The animal exceeded the maximum age of its species.
+    OLD_AGE,
+    // The animal was eaten by a predator.
+    PREDATION,
+    // The animal could not move to any adjacent location.
+    OVERCROWDING,
+    // The animal exceeded the maximum age of its species because a disease made it age faster.
+    DISEASE
+}
@@ -9,24 +9,7 @@ import java.util.List;
  */
 public class Deer extends Animal implements Herbivore, Prey, Drawable{
 
-    // Characteristics shared by all deers (class variables).
-
-    // The age at which a deer can start to breed.
-    private static final int BREEDING_AGE = 7;
-    // The age to which a deer can live.
-    private static final int MAX_AGE = 100;
-    // The likelihood of a deer breeding.
-    private static final double BREEDING_PROBABILITY = 0.41;
-    // The maximum number of births.
-    private static final int MAX_LITTER_SIZE = 3;
-    // The food value of a single deer.
-    private static final int DEER_FOOD_VALUE = 9;
-    // The probability of getting sick.
-    private static final double DISEASE_PROBABILITY = 0.01;
-    // Max food value of a deer.
-    private static final int MAX_FOOD_VALUE = 12;
-    // Steps a deer needs to wait before it can breed again.
-    private static final int DAYS_TO_WAIT = 4;
+    // The parameters of deers are defined in their SpeciesProfile.
 
     /**
      * Create a new deer. A deer may be created with age
@@ -47,64 +30,8 @@ public class Deer extends Animal implements Herbivore, Prey, Drawable{
      * @see Animal
      */
     @Override
-    public int getMaxAge(){
-        return MAX_AGE;
-    }
-
-    /**
-     * @see Animal
-     */
-    @Override
-    protected double getBreedingProbability(){
-        return BREEDING_PROBABILITY;
-    }
-
-    /**
-     * @see Animal
-     */
-    @Override
-    protected int getBreedingAge(){
-        return BREEDING_AGE;
-    }
-
-    /**
-     * @see Animal
-     */
-    @Override
-    protected int getMaxLitterSize(){
-        return MAX_LITTER_SIZE;
-    }
-
-    /**
-     * @see Animal
-     */
-    @Override
-    protected int getDaysToWait(){
-        return DAYS_TO_WAIT;
-    }
-
-    /**
-     * @see Animal
-     */
-    @Override
-    protected int getMaxFoodValue(){
-        return MAX_FOOD_VALUE;
-    }
-
-    /**
-     * @see Animal
-     */
-    @Override
-    protected double getDiseaseProbability() {
-        return DISEASE_PROBABILITY;
-    }
-
-    /**
-     * @see Animal
-     */
-    @Override
-    protected int getFoodValue(){
-        return DEER_FOOD_VALUE;
+    public Species getSpecies(){
+        return Species.DEER;
     }
 
     /**
@@ -138,11 +65,10 @@ public class Deer extends Animal implements Herbivore, Prey, Drawable{
         }
 
         Field field = getField();
-        List<Location> free = field.getFreeAdjacentLocations(getLocation());
+        Neighbourhood free = field.neighbours(getLocation());
         int births = breed();
-        for(int b = 0; b < births && free.size() > 0; b++) {
-            Location loc = free.remove(0);
-            Deer young = new Deer(false, field, loc, getEnvironment());
+        for(int b = 0; b < births && free.nextFree(); b++) {
+            Deer young = new Deer(false, field, free.getLocation(), getEnvironment());
             newDeers.add(young);
         }
     }
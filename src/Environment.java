@@ -50,6 +50,14 @@ public class Environment{
         return hourOfDay > 11 && hourOfDay < 20;
     }
 
+    /**
+     *
+     * @return The current hour of the day.
+     */
+    public int getHourOfDay(){
+        return hourOfDay;
+    }
+
     /**
      *
      * @return Weather of the environment.
@@ -74,6 +82,15 @@ public class Environment{
 
     // SETTERS:
 
+    /**
+     * Set the time of day, e.g. when the simulation is restored from a snapshot.
+     *
+     * @param hourOfDay The hour of the day.
+     */
+    public void setHourOfDay(int hourOfDay){
+        this.hourOfDay = hourOfDay;
+    }
+
     /**
      * Increment time of day for one hour. Time is increased at the beginning of each step.
      */
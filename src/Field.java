@@ -1,25 +1,63 @@
-import java.util.Stack;
-import java.util.Random;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.List;
 import java.util.LinkedList;
 import java.util.Collections;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Represent a rectangular grid of field positions.
  * Each position is able to store at most a plant and an animal.
- * Implementation is using stacks that can simulate animals stepping on the
- * plants without killing/removing them from the field.
+ * The field is stored as two layers, one for plants and one for animals, so
+ * animals can step on the plants without killing/removing them from the field.
+ * Each layer is a flat array indexed by row * width + col. An animal is always
+ * "on top" of a plant at the same position.
+ * The field also keeps count of the population of each species, updated whenever an
+ * object is placed or cleared, so the counts never require a scan of the field.
+ * Which cells of each layer are occupied is kept in occupancy maps, so that scans of
+ * the field (e.g. for drawing or counting) can skip the empty parts of large fields.
+ * The cells that changed since the changes were last cleared are kept in the same way,
+ * so that views only need to redraw those cells.
+ * The cells of each species, of the animal layer and of the sick animals are also kept in
+ * bit grids, so that the animals can find out which cells around them hold a mate, prey, a
+ * sick animal or a plant, or are free, with a few shifts and masks (see getNeighbours).
+ * Plants kept in a PlantLayer are represented in the plant layer by Species.PLANT; the
+ * methods getPlantFoodValue and eatPlant work with both kinds of plants.
  * 
- * @author David J. Barnes and Michael Kölling (modified to use stacks by: Jacopo Madaluni and Luka Kralj)
+ * @author David J. Barnes and Michael Kölling (modified to use layers by: Jacopo Madaluni and Luka Kralj)
  * @version February 2018
  */
 public class Field {
-    // A random number generator for providing random locations.
-    private static final Random rand = Randomizer.getRandom();
+    // Atomic access to the elements of the array of locations.
+    private static final VarHandle LOCATION = MethodHandles.arrayElementVarHandle(Location[].class);
+
     // The depth and width of the field.
     private int depth, width;
-    // Storage for the plants and animals.
-    private Stack[][] field;
+    // Storage for the animals (top layer).
+    private Object[] animals;
+    // Storage for the plants (bottom layer).
+    private Object[] plants;
+    // The plants kept as arrays, null if every plant is an object.
+    private PlantLayer plantLayer;
+    // The occupied cells of each layer.
+    private OccupancyMap animalCells;
+    private OccupancyMap plantCells;
+    // The cells whose contents changed since the changes were last cleared.
+    private OccupancyMap changedCells;
+    // The cells of each species, indexed by the species' ordinal, of the animal layer,
+    // and of the sick animals.
+    private BitGrid[] speciesGrids;
+    private BitGrid animalGrid;
+    private BitGrid sickGrid;
+    // Number of objects of each species in the field, indexed by the species' ordinal.
+    // Adders allow the counts to be updated from several threads without contention.
+    private LongAdder[] population;
+    // Births and deaths of the animals in the field.
+    private VitalStatistics vitalStatistics;
+    // Canonical location objects, created the first time they are needed.
+    private Location[] locations;
+    // Reusable neighbourhood cursors, one for each thread using the field.
+    private ThreadLocal<Neighbourhood> neighbourhoods;
 
     /**
      * Represent a field of the given dimensions.
@@ -30,36 +68,103 @@ public class Field {
     public Field(int depth, int width) {
         this.depth = depth;
         this.width = width;
-        field = new Stack[depth][width];
-
-        initialiseGrid();
+        animals = new Object[depth * width];
+        plants = new Object[depth * width];
+        animalCells = new OccupancyMap(depth * width);
+        plantCells = new OccupancyMap(depth * width);
+        changedCells = new OccupancyMap(depth * width);
+        speciesGrids = new BitGrid[Species.values().length];
+        for (int i = 0; i < speciesGrids.length; i++) {
+            speciesGrids[i] = new BitGrid(depth, width);
+        }
+        animalGrid = new BitGrid(depth, width);
+        sickGrid = new BitGrid(depth, width);
+        locations = new Location[depth * width];
+        population = new LongAdder[Species.values().length];
+        for (int i = 0; i < population.length; i++) {
+            population[i] = new LongAdder();
+        }
+        vitalStatistics = new VitalStatistics();
+        neighbourhoods = ThreadLocal.withInitial(() -> new Neighbourhood(this));
     }
 
     /**
-     * The 2-dimensional array of stack needs to be initialised with new stacks.
+     * Empty the field. Only the occupied cells are visited.
      */
-    private void initialiseGrid(){
-        for(int row = 0; row < depth; row++) {
-            for(int col = 0; col < width; col++) {
-                field[row][col] = new Stack<>();
-            }
+    public void clear() {
+        for (int i = animalCells.next(0); i >= 0; i = animalCells.next(i + 1)) {
+            animals[i] = null;
+            changedCells.set(i);
         }
+        for (int i = plantCells.next(0); i >= 0; i = plantCells.next(i + 1)) {
+            plants[i] = null;
+            changedCells.set(i);
+        }
+        animalCells.clear();
+        plantCells.clear();
+        for (BitGrid grid : speciesGrids) {
+            grid.clear();
+        }
+        animalGrid.clear();
+        sickGrid.clear();
+        for (LongAdder count : population) {
+            count.reset();
+        }
+        vitalStatistics.reset();
     }
     
     /**
-     * Empty the field.
+     * Use a PlantLayer for the plants of this field, or objects if the layer is null.
+     * The field should be empty.
+     *
+     * @param plantLayer The layer keeping the plants, null if every plant is an object.
      */
-    public void clear() {
-        initialiseGrid();
+    public void setPlantLayer(PlantLayer plantLayer) {
+        this.plantLayer = plantLayer;
     }
-    
+
     /**
      * Clear the top element of the given location.
+     * If there is an animal at the location the animal is removed, otherwise the plant is.
      *
      * @param location The location to clear.
      */
     public void clear(Location location) {
-        field[location.getRow()][location.getCol()].pop();
+        int row = location.getRow();
+        int col = location.getCol();
+        int index = index(row, col);
+        if (animals[index] != null) {
+            count(animals[index], -1);
+            unmark(animals[index], row, col);
+            animals[index] = null;
+            animalCells.clear(index);
+            animalGrid.clear(row, col);
+            sickGrid.clear(row, col);
+        }
+        else {
+            count(plants[index], -1);
+            unmark(plants[index], row, col);
+            plants[index] = null;
+            plantCells.clear(index);
+        }
+        changedCells.set(index);
+    }
+
+    /**
+     * Remove the plant at the given location. An animal standing
+     * on the plant stays where it is.
+     *
+     * @param location The location to clear.
+     */
+    public void clearPlant(Location location) {
+        int row = location.getRow();
+        int col = location.getCol();
+        int index = index(row, col);
+        count(plants[index], -1);
+        unmark(plants[index], row, col);
+        plants[index] = null;
+        plantCells.clear(index);
+        changedCells.set(index);
     }
     
     /**
@@ -70,17 +175,200 @@ public class Field {
      * @param col Column coordinate of the location.
      */
     public void place(Object object, int row, int col) {
-        place(object, new Location(row, col));
+        place(object, getLocation(row, col));
     }
 
     /**
-     * Place an object at the given location.
+     * Return the location object for the given coordinates. The same location object
+     * is returned every time for the same coordinates, so locations of this field
+     * can also be compared by identity. This holds even when several threads ask for
+     * the same location at the same time: only the first location created is kept.
+     *
+     * @param row The row of the location.
+     * @param col The column of the location.
+     * @return The location with the given coordinates.
+     */
+    public Location getLocation(int row, int col) {
+        int index = index(row, col);
+        Location location = locations[index];
+        if (location == null) {
+            Location created = new Location(row, col);
+            location = (Location) LOCATION.compareAndExchange(locations, index, null, created);
+            if (location == null) {
+                location = created;
+            }
+        }
+        return location;
+    }
+
+    /**
+     * Place an object at the given location. Plants (and Species.PLANT) are placed in the plant
+     * layer, any other object is placed in the animal layer (on top of the plant, if any).
      *
      * @param object The object to be placed.
      * @param location Where to place the object.
      */
     public void place(Object object, Location location) {
-        field[location.getRow()][location.getCol()].push(object);
+        int row = location.getRow();
+        int col = location.getCol();
+        int index = index(row, col);
+        if (object instanceof Plant || object == Species.PLANT) {
+            count(plants[index], -1);
+            unmark(plants[index], row, col);
+            plants[index] = object;
+            plantCells.set(index);
+        }
+        else {
+            count(animals[index], -1);
+            unmark(animals[index], row, col);
+            animals[index] = object;
+            if (object != null) {
+                animalCells.set(index);
+                animalGrid.set(row, col);
+            }
+            else {
+                animalCells.clear(index);
+                animalGrid.clear(row, col);
+            }
+            if (object instanceof Animal && ((Animal) object).hasDisease()) {
+                sickGrid.set(row, col);
+            }
+            else {
+                sickGrid.clear(row, col);
+            }
+        }
+        changedCells.set(index);
+        count(object, 1);
+        Species species = Species.of(object);
+        if (species != null) {
+            speciesGrids[species.ordinal()].set(row, col);
+        }
+    }
+
+    /**
+     * Mark the animal at the given location as sick, after it caught a disease.
+     * The cell counts as changed, as a sick animal is displayed differently.
+     *
+     * @param location The location of the animal.
+     */
+    public void setSick(Location location) {
+        int row = location.getRow();
+        int col = location.getCol();
+        if (!sickGrid.get(row, col)) {
+            sickGrid.set(row, col);
+            changedCells.set(index(row, col));
+        }
+    }
+
+    /**
+     * @param row The row of a cell.
+     * @param col The column of a cell.
+     * @return True if the cell holds a sick animal, whether it is an object or kept
+     *         in an AnimalStore.
+     */
+    public boolean isSick(int row, int col) {
+        return sickGrid.get(row, col);
+    }
+
+    /**
+     * Find which cells around a cell hold an object of a species. Plants are looked for
+     * in the plant layer, all other species in the animal layer.
+     *
+     * @param species The species to look for.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return The mask of the cells around the cell holding the species, with a bit for
+     *         each offset of Neighbourhood (see Neighbourhood.nextIn).
+     */
+    public int getNeighbours(Species species, int row, int col) {
+        return speciesGrids[species.ordinal()].neighbours(row, col);
+    }
+
+    /**
+     * Find which cells around a cell hold an object of any of the given species.
+     *
+     * @param speciesMask The species to look for, as a mask of their ordinals.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return The mask of the cells around the cell holding one of the species.
+     */
+    public int getNeighbours(int speciesMask, int row, int col) {
+        int mask = 0;
+        for (int bits = speciesMask; bits != 0; bits &= bits - 1) {
+            mask |= speciesGrids[Integer.numberOfTrailingZeros(bits)].neighbours(row, col);
+        }
+        return mask;
+    }
+
+    /**
+     * @param row The row of a cell.
+     * @param col The column of a cell.
+     * @return The mask of the free cells around the cell (with no other objects but plants).
+     */
+    public int getFreeNeighbours(int row, int col) {
+        return animalGrid.free(row, col);
+    }
+
+    /**
+     * @param row The row of a cell.
+     * @param col The column of a cell.
+     * @return The mask of the cells around the cell holding a sick animal.
+     */
+    public int getSickNeighbours(int row, int col) {
+        return sickGrid.neighbours(row, col);
+    }
+
+    /**
+     * @param row The row of a cell.
+     * @param col The column of a cell.
+     * @return The mask of the cells around the cell with a plant and no animal on it.
+     */
+    public int getReachablePlants(int row, int col) {
+        return speciesGrids[Species.PLANT.ordinal()].neighbours(row, col) & animalGrid.free(row, col);
+    }
+
+    /**
+     * Remove the cell of an object from the grid of its species.
+     *
+     * @param object The object leaving the cell, may be null.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     */
+    private void unmark(Object object, int row, int col) {
+        Species species = Species.of(object);
+        if (species != null) {
+            speciesGrids[species.ordinal()].clear(row, col);
+        }
+    }
+
+    /**
+     * Return the number of objects of the given species in the field.
+     *
+     * @param species The species to count.
+     * @return The number of objects of that species.
+     */
+    public int getPopulation(Species species) {
+        return population[species.ordinal()].intValue();
+    }
+
+    /**
+     * @return The births and deaths of the animals in the field since it was last cleared.
+     */
+    public VitalStatistics getVitalStatistics() {
+        return vitalStatistics;
+    }
+
+    /**
+     * Update the population count of the species of the given object.
+     *
+     * @param object The object added to or removed from the field, may be null.
+     * @param change 1 if the object was added, -1 if it was removed.
+     */
+    private void count(Object object, int change) {
+        Species species = Species.of(object);
+        if (species != null) {
+            population[species.ordinal()].add(change);
+        }
     }
 
     /**
@@ -101,19 +389,156 @@ public class Field {
      * @return The top object at the given location, or null if there is none.
      */
     public Object getObjectAt(int row, int col) {
-        if (field[row][col].isEmpty()) {
-            return null;
+        int index = index(row, col);
+        Object animal = animals[index];
+        if (animal != null) {
+            return animal;
         }
-        return field[row][col].peek();
+        return plants[index];
     }
 
     /**
-     * It returns the field as a 2-dimensional array that is needed for some operations.
+     * Return the animal at the given location, if any. Plants are ignored.
      *
-     * @return 2D array of stacks that is currently used as a field.
+     * @param row The desired row.
+     * @param col The desired column.
+     * @return The animal at the given location, or null if there is none.
+     */
+    public Object getAnimalAt(int row, int col) {
+        return animals[index(row, col)];
+    }
+
+    /**
+     * Return the plant at the given location, if any, even if there is
+     * an animal standing on it.
+     *
+     * @param row The desired row.
+     * @param col The desired column.
+     * @return The plant at the given location, or null if there is none
+     *         or it is kept in a PlantLayer.
      */
-    public Stack[][] getField(){
-        return field;
+    public Plant getPlantAt(int row, int col) {
+        Object plant = plants[index(row, col)];
+        return plant instanceof Plant ? (Plant) plant : null;
+    }
+
+    /**
+     * Return the food value of the plant at the given location, if any, even if there is
+     * an animal standing on it.
+     *
+     * @param row The desired row.
+     * @param col The desired column.
+     * @return The food value of the plant, or -1 if there is no plant.
+     */
+    public int getPlantFoodValue(int row, int col) {
+        int index = index(row, col);
+        if (plantLayer != null) {
+            return plantLayer.getFoodValue(index);
+        }
+        Plant plant = (Plant) plants[index];
+        if (plant == null || !plant.isActive()) {
+            return -1;
+        }
+        return plant.getFoodValue();
+    }
+
+    /**
+     * Remove the plant at the given location because it was eaten. An animal standing
+     * on the plant stays where it is.
+     *
+     * @param row The desired row.
+     * @param col The desired column.
+     * @return The food value of the eaten plant, or -1 if there is no plant.
+     */
+    public int eatPlant(int row, int col) {
+        int index = index(row, col);
+        if (plantLayer != null) {
+            return plantLayer.eat(index);
+        }
+        Plant plant = (Plant) plants[index];
+        if (plant == null || !plant.isActive()) {
+            return -1;
+        }
+        plant.setDead();
+        return plant.getFoodValue();
+    }
+
+    /**
+     * Return the plant at the given location, if any, even if there is
+     * an animal standing on it.
+     *
+     * @param location Where in the field.
+     * @return The plant at the given location, or null if there is none.
+     */
+    public Plant getPlantAt(Location location) {
+        return getPlantAt(location.getRow(), location.getCol());
+    }
+
+    /**
+     * Find the next cell with an animal. Cells are numbered row by row
+     * (row * width + col). Must not be used while actors are acting.
+     *
+     * @param from The number of the cell to start from.
+     * @return The number of the first cell at or after the given one with an animal,
+     *         or -1 if there is none.
+     */
+    public int nextAnimalCell(int from) {
+        return animalCells.next(from);
+    }
+
+    /**
+     * Find the next cell with a plant. Cells are numbered row by row
+     * (row * width + col). Must not be used while actors are acting.
+     *
+     * @param from The number of the cell to start from.
+     * @return The number of the first cell at or after the given one with a plant,
+     *         or -1 if there is none.
+     */
+    public int nextPlantCell(int from) {
+        return plantCells.next(from);
+    }
+
+    /**
+     * Find the next cell with an animal or a plant. Cells are numbered row by row
+     * (row * width + col). Must not be used while actors are acting.
+     *
+     * @param from The number of the cell to start from.
+     * @return The number of the first cell at or after the given one that is not empty,
+     *         or -1 if there is none.
+     */
+    public int nextOccupiedCell(int from) {
+        return animalCells.nextInEither(plantCells, from);
+    }
+
+    /**
+     * Find the next cell whose contents changed since the changes were last cleared.
+     * Cells are numbered row by row (row * width + col). Must not be used while
+     * actors are acting.
+     *
+     * @param from The number of the cell to start from.
+     * @return The number of the first changed cell at or after the given one,
+     *         or -1 if there is none.
+     */
+    public int nextChangedCell(int from) {
+        return changedCells.next(from);
+    }
+
+    /**
+     * Forget the cells that changed so far, e.g. after they were drawn.
+     */
+    public void clearChanges() {
+        changedCells.clear();
+    }
+
+    /**
+     * Compute the position of a location in the flat layer arrays.
+     *
+     * @param row The row of the location.
+     * @param col The column of the location.
+     * @return The index of the location in the layers.
+     */
+    private int index(int row, int col) {
+        return row * width + col;
     }
     
     /**
@@ -126,8 +551,11 @@ public class Field {
      * @return A valid location within the grid area.
      */
     public Location randomAdjacentLocation(Location location) {
-        List<Location> adjacent = adjacentLocations(location);
-        return adjacent.get(0);
+        Neighbourhood neighbours = neighbours(location);
+        if(neighbours.next()) {
+            return neighbours.getLocation();
+        }
+        return location;
     }
     
     /**
@@ -141,7 +569,7 @@ public class Field {
         List<Location> free = new LinkedList<>();
         List<Location> adjacent = adjacentLocations(location);
         for(Location next : adjacent) {
-            if(getObjectAt(next) == null || getObjectAt(next) instanceof Plant) {
+            if(animals[index(next.getRow(), next.getCol())] == null) {
                 free.add(next);
             }
         }
@@ -159,16 +587,27 @@ public class Field {
      * @return A valid location within the grid area.
      */
     public Location freeAdjacentLocation(Location location) {
-        // The available free ones.
-        List<Location> free = getFreeAdjacentLocations(location);
-        if(free.size() > 0) {
-            return free.get(0);
+        Neighbourhood neighbours = neighbours(location);
+        if(neighbours.nextFree()) {
+            return neighbours.getLocation();
         }
         else {
             return null;
         }
     }
 
+    /**
+     * Start visiting the locations adjacent to the given one in a random order.
+     * Unlike adjacentLocations this does not create any new objects: the returned
+     * cursor is reused by the next call on the same thread, so it must not be kept.
+     *
+     * @param location The location from which to generate adjacencies.
+     * @return A cursor over the locations adjacent to that given.
+     */
+    public Neighbourhood neighbours(Location location) {
+        return neighbourhoods.get().start(location);
+    }
+
     /**
      * Return a shuffled list of locations adjacent to the given one.
      * The list will not include the location itself.
@@ -191,14 +630,14 @@ public class Field {
                         int nextCol = col + coffset;
                         // Exclude invalid locations and the original location.
                         if(nextCol >= 0 && nextCol < width && (roffset != 0 || coffset != 0)) {
-                            locations.add(new Location(nextRow, nextCol));
+                            locations.add(getLocation(nextRow, nextCol));
                         }
                     }
                 }
             }
             // Shuffle the list. Several other methods rely on the list
             // being in a random order.
-            Collections.shuffle(locations, rand);
+            Collections.shuffle(locations, Randomizer.getRandom());
         }
         return locations;
     }
@@ -1,27 +1,42 @@
-import java.util.HashMap;
-
 /**
- * This class collects and provides some statistical data on the state 
- * of a field. It is flexible: it will create and maintain a counter 
- * for any class of object that is found within the field.
+ * This class provides some statistical data on the state of a field.
+ * The population of each species is counted by the field itself whenever
+ * something is placed or removed, so the statistics never require a scan of
+ * the field. For testing, a verification mode can be turned on which
+ * cross-checks these counts against a full scan of the field.
  *
  * @author David J. Barnes and Michael Kölling (minor modifications by Jacopo Madaluni and Luka Kralj)
  * @version 2016.02.29
  */
 public class FieldStats {
-    // Counters for each type of entity (fox, rabbit, etc.) in the simulation.
-    private HashMap<Class, Counter> counters;
-    // Whether the counters are currently up to date.
-    private boolean countsValid;
+    // All species, indexed by their ordinal.
+    private static final Species[] SPECIES = Species.values();
+
+    // Counters for each species, indexed by the species' ordinal. Only used by full scans.
+    private Counter[] counters;
+    // Whether the counts of the field are verified with a full scan.
+    private boolean verify;
 
     /**
      * Construct a FieldStats object.
      */
     public FieldStats() {
-        // Set up a collection for counters for each type of animal that
-        // we might find
-        counters = new HashMap<>();
-        countsValid = true;
+        // Set up a counter for each species that we might find.
+        counters = new Counter[SPECIES.length];
+        for (int i = 0; i < SPECIES.length; i++) {
+            counters[i] = new Counter(SPECIES[i].getName());
+        }
+        verify = false;
+    }
+
+    /**
+     * Turn the verification mode on or off. In verification mode every request
+     * for statistics also counts the species with a full scan of the field.
+     *
+     * @param verify True if the counts should be verified.
+     */
+    public void setVerify(boolean verify) {
+        this.verify = verify;
     }
 
     /**
@@ -30,57 +45,19 @@ public class FieldStats {
      * @return A string describing what is in the field.
      */
     public String getPopulationDetails(Field field) {
-        StringBuffer buffer = new StringBuffer();
-        if(!countsValid) {
-            generateCounts(field);
+        if (verify) {
+            verifyCounts(field);
         }
-        for(Class key : counters.keySet()) {
-            Counter info = counters.get(key);
-            buffer.append(info.getName());
+        StringBuffer buffer = new StringBuffer();
+        for (Species species : SPECIES) {
+            buffer.append(species.getName());
             buffer.append(": ");
-            buffer.append(info.getCount());
+            buffer.append(field.getPopulation(species));
             buffer.append(' ');
         }
         return buffer.toString();
     }
 
-    /**
-     * Invalidate the current set of statistics; reset all 
-     * counts to zero.
-     */
-    public void reset() {
-        countsValid = false;
-        for(Class key : counters.keySet()) {
-            Counter count = counters.get(key);
-            count.reset();
-        }
-    }
-
-    /**
-     * Increment the count for one class of animal.
-     *
-     * @param animalClass The class of animal to increment.
-     */
-    public void incrementCount(Class animalClass) {
-        Counter count = counters.get(animalClass);
-        if(count == null) {
-            // We do not have a counter for this species yet.
-            // Create one.
-            count = new Counter(animalClass.getName());
-            counters.put(animalClass, count);
-
-
-        }
-        count.increment();
-    }
-
-    /**
-     * Indicate that an animal count has been completed.
-     */
-    public void countFinished() {
-        countsValid = true;
-    }
-
     /**
      * Determine whether the simulation is still viable.
      * I.e., should it continue to run.
@@ -88,14 +65,13 @@ public class FieldStats {
      * @return true If there is more than one species alive.
      */
     public boolean isViable(Field field) {
+        if (verify) {
+            verifyCounts(field);
+        }
         // How many counts are non-zero.
         int nonZero = 0;
-        if(!countsValid) {
-            generateCounts(field);
-        }
-        for(Class key : counters.keySet()) {
-            Counter info = counters.get(key);
-            if(info.getCount() > 0) {
+        for (Species species : SPECIES) {
+            if (field.getPopulation(species) > 0) {
                 nonZero++;
             }
         }
@@ -103,30 +79,41 @@ public class FieldStats {
     }
 
     /**
-     * Generate counts of the number of each species.
-     * These are not kept up to date as specimen
-     * are placed in the field, but only when a request
-     * is made for the information.
+     * Check that the population counts of the field match a full scan of the field.
+     *
+     * @param field The field to verify.
+     * @throws IllegalStateException If any of the counts does not match.
+     */
+    public void verifyCounts(Field field) {
+        generateCounts(field);
+        for (Species species : SPECIES) {
+            Counter counter = counters[species.ordinal()];
+            if (counter.getCount() != field.getPopulation(species)) {
+                throw new IllegalStateException("Population of " + species.getName() + " is "
+                        + field.getPopulation(species) + " but the field contains " + counter.getCount() + ".");
+            }
+        }
+    }
+
+    /**
+     * Generate counts of the number of each species with a full scan
+     * of the field. Empty parts of the field are skipped.
      *
      * @param field The field to generate the stats for.
      */
     private void generateCounts(Field field) {
-        reset();
-        for(int row = 0; row < field.getDepth(); row++) {
-            for(int col = 0; col < field.getWidth(); col++) {
-                Object animal = field.getObjectAt(row, col);
-                if(animal != null) {
-                    if (field.getField()[row][col].size() == 2){
-                        /* If there are two objects in the stack at that location then this
-                         * means that there is also a plant in that stack, since no two
-                         * animals can appear to be in the same stack at the same moment.
-                         */
-                        incrementCount(Plant.class);
-                    }
-                    incrementCount(animal.getClass());
-                }
+        for (Counter counter : counters) {
+            counter.reset();
+        }
+        int width = field.getWidth();
+        for(int cell = field.nextAnimalCell(0); cell >= 0; cell = field.nextAnimalCell(cell + 1)) {
+            Species species = Species.of(field.getAnimalAt(cell / width, cell % width));
+            if(species != null) {
+                counters[species.ordinal()].increment();
             }
         }
-        countsValid = true;
+        for(int cell = field.nextPlantCell(0); cell >= 0; cell = field.nextPlantCell(cell + 1)) {
+            counters[Species.PLANT.ordinal()].increment();
+        }
     }
 }
@@ -1,7 +1,3 @@
-import java.util.Iterator;
-import java.util.List;
-
-
 /**
  * The Interface of an Herbivore animal.
  * @author Jacopo Madaluni & Luka Kralj
@@ -15,19 +11,19 @@ public interface Herbivore extends Actor {
      * @return The location of the plant to eat. (null if there is no plant)
      */
     default Location findPlants(Animal animal){
+        if (!animal.getProfile().eatsPlants()){
+            return null;
+        }
         Field field = animal.getField();
-        List<Location> adjacent = field.adjacentLocations(animal.getLocation());
-        Iterator<Location> it = adjacent.iterator();
-        while(it.hasNext()) {
-            Location where = it.next();
-            Object an = field.getObjectAt(where);
-            if(an != null && an instanceof Plant) {
-                Plant plant = (Plant) an;
-                if(plant.isActive()) {
-                    plant.setDead();
-                    animal.setFoodLevel(plant.getFoodValue());
-                    return where;
-                }
+        Location location = animal.getLocation();
+        Neighbourhood neighbours = field.neighbours(location);
+        // Plants under other animals cannot be eaten.
+        int plants = field.getReachablePlants(location.getRow(), location.getCol());
+        while(neighbours.nextIn(plants)) {
+            int foodValue = field.eatPlant(neighbours.getRow(), neighbours.getCol());
+            if(foodValue >= 0) {
+                animal.setFoodLevel(foodValue);
+                return neighbours.getLocation();
             }
         }
         return null;
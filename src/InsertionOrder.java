@@ -0,0 +1,22 @@
+import java.util.List;
+
+/**
+ * The default scheduler. The actors keep the order in which they were added to the
+ * simulation: the weather first, then the populated actors and then the newborns of
+ * each step. It costs nothing, but the actors that were added first always act first.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+public class InsertionOrder implements Scheduler {
+
+    /**
+     * The order of the actors is not changed.
+     *
+     * @see Scheduler
+     */
+    @Override
+    public boolean schedule(List<Actor> actors, Field field, int step) {
+        return false;
+    }
+}
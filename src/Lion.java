@@ -11,32 +11,7 @@ import java.util.List;
  */
 public class Lion extends Animal implements Predator, Drawable  {
 
-    // Characteristics shared by all foxes (class variables).
-
-    // The age at which a fox can start to breed.
-    private static final int BREEDING_AGE = 8;
-    // The age to which a fox can live.
-    private static final int MAX_AGE = 250;
-    // The likelihood of a fox breeding.
-    private static final double BREEDING_PROBABILITY = 0.5; //0,08 default
-    // The maximum number of births.
-    private static final int MAX_LITTER_SIZE = 5;  //2 default
-    // The food value of a single rabbit. In effect, this is the
-    // number of steps a fox can go before it has to eat again.
-    private static final int LION_FOOD_VALUE = 20;
-
-    private static final double DISEASE_PROBABILITY = 0.001;
-
-    private static final int MAX_FOOD_VALUE = 13;
-
-    private static final int DAYS_TO_WAIT = 5;
-
-    private static final Class[] huntedAnimals = { Rabbit.class, Fox.class, Deer.class };
-    // A shared random number generator to control breeding.
-    //private static final Random rand = Randomizer.getRandom();
-
-    // The fox's food level, which is increased by eating rabbits.
-
+    // The parameters of lions, including the species they hunt, are defined in their SpeciesProfile.
 
     /**
      * Create a lion. A lion can be created as a new born (age zero
@@ -60,60 +35,12 @@ public class Lion extends Animal implements Predator, Drawable  {
      *
      */
     /**
-     * @return The max age of a lion.
-     */
-    @Override
-    public int getMaxAge(){
-        return MAX_AGE;
-    }
-    /**
-     * @return The breeding probablity of a lion.
-     */
-    @Override
-    protected double getBreedingProbability(){
-        return BREEDING_PROBABILITY;
-    }
-    /**
-     * @return The breeding age of a lion.
+     * @return The species of lions.
      */
     @Override
-    protected int getBreedingAge(){
-        return BREEDING_AGE;
+    public Species getSpecies(){
+        return Species.LION;
     }
-    /**
-     * @return The max litter size of a lion.
-     */
-    @Override
-    protected int getMaxLitterSize(){
-        return MAX_LITTER_SIZE;
-    }
-    /**
-     * @return The days to wait after breeding to breed again (applies to females only).
-     */
-    @Override
-    protected int getDaysToWait(){
-        return DAYS_TO_WAIT;
-    }
-    /**
-     * @return The maximum food value of a lion.
-     */
-    @Override
-    protected int getMaxFoodValue(){
-        return MAX_FOOD_VALUE;
-    }
-    /**
-     * @return The value a lion is going to give to the animal who eats it.
-     */
-    @Override
-    protected int getFoodValue(){
-        return LION_FOOD_VALUE;
-    }
-    /**
-     * @return The probability of a lion of getting a desease.
-     */
-    @Override
-    protected double getDiseaseProbability(){ return DISEASE_PROBABILITY; }
-
     /**
      * The following method overrides animal.findFood().
      * All predators will call hunt() from the predator interface to find food.
@@ -124,20 +51,6 @@ public class Lion extends Animal implements Predator, Drawable  {
         return hunt(this);
     }
 
-    @Override
-    public boolean sleeps(){
-        return !getEnvironment().isAfternoon();
-    }
-
-    /**
-     * The following method is described in the predator interface.
-     * @return A list of the hunted species.
-     */
-    @Override
-    public Class[] getHuntedAnimals(){
-        return huntedAnimals;
-    }
-
 
 
     /**
@@ -154,11 +67,10 @@ public class Lion extends Animal implements Predator, Drawable  {
             return;
         }
         Field field = getField();
-        List<Location> free = field.getFreeAdjacentLocations(getLocation());
+        Neighbourhood free = field.neighbours(getLocation());
         int births = breed();
-        for(int b = 0; b < births && free.size() > 0; b++) {
-            Location loc = free.remove(0);
-            Lion young = new Lion(false, field, loc, getEnvironment());
+        for(int b = 0; b < births && free.nextFree(); b++) {
+            Lion young = new Lion(false, field, free.getLocation(), getEnvironment());
             newLions.add(young);
         }
     }
@@ -1,5 +1,7 @@
 /**
  * Represent a location in a rectangular grid.
+ * Locations are immutable. A Field hands out a single canonical location
+ * object for each of its positions (see Field.getLocation).
  * 
  * @author David J. Barnes and Michael Kölling
  * @version 2018.02 (2)
@@ -7,8 +9,8 @@
 public class Location
 {
     // Row and column positions.
-    private int row;
-    private int col;
+    private final int row;
+    private final int col;
 
     /**
      * Represent a row and column.
@@ -26,6 +28,9 @@ public class Location
      */
     public boolean equals(Object obj)
     {
+        if(obj == this) {
+            return true;
+        }
         if(obj instanceof Location) {
             Location other = (Location) obj;
             return row == other.getRow() && col == other.getCol();
@@ -1,6 +1,8 @@
 public class Main {
     public static void main(String[] args){
-        Simulator simulator = new Simulator(100,150);
+        // Run with "-headless" to simulate without a graphical view.
+        boolean headless = args.length > 0 && args[0].equals("-headless");
+        Simulator simulator = new Simulator(100,150, headless);
         //simulator.simulate(1);
         simulator.runLongSimulation();
     }
@@ -0,0 +1,298 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Records a time series of metrics of a simulation: after every step the population of
+ * each species, the births, the deaths by cause, the weather and the wall time of the step.
+ *
+ * The metrics are stored column by column in primitive ring buffers of a fixed capacity,
+ * so long simulations do not need more memory. Without a spill file, the oldest steps are
+ * overwritten once the buffers are full. With a spill file, full buffers are appended to the
+ * file as a block of columns and the buffers start again from empty.
+ *
+ * Spill file format (big endian): a header with the magic number, the version, the number
+ * of species and the number of causes of death, followed by blocks. Each block holds its
+ * number of rows n and then the columns: n steps (int), n populations for each species (int),
+ * n births (int), n deaths for each cause (int), n weather states (byte) and n step times
+ * in nanoseconds (long). A block of -1 rows, with no columns, is written whenever the
+ * simulation is reset: the steps after it belong to a new run, starting from step 0.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+public class MetricsRecorder implements SimulatorObserver {
+    // Identifies metrics files ("NPSM").
+    private static final int MAGIC = 0x4E50534D;
+    // Version of the file format.
+    private static final int VERSION = 2;
+    // Number of rows of the block that marks a reset of the simulation.
+    private static final int RESET_MARKER = -1;
+
+    // Number of steps the buffers can hold.
+    private int capacity;
+    // Number of steps currently in the buffers.
+    private int size;
+    // Position in the buffers where the next step is written.
+    private int next;
+
+    // The columns of the time series.
+    private int[] steps;
+    private int[][] populations;
+    private int[] births;
+    private int[][] deaths;
+    private byte[] weather;
+    private long[] stepNanos;
+
+    // Totals of the field's vital statistics at the previous step.
+    private long lastBirths;
+    private long[] lastDeaths;
+
+    // The file full buffers are written to, null if the oldest steps are overwritten.
+    private FileChannel spill;
+    // Buffer used to write blocks to the spill file.
+    private ByteBuffer block;
+
+    /**
+     * Create a recorder that keeps only the last steps.
+     *
+     * @param capacity The number of steps to keep. Must be at least 1.
+     */
+    public MetricsRecorder(int capacity) {
+        if (capacity < 1) {
+            System.out.println("The capacity must be at least one.");
+            System.out.println("Using capacity 1.");
+            capacity = 1;
+        }
+        this.capacity = capacity;
+        steps = new int[capacity];
+        populations = new int[Species.values().length][capacity];
+        births = new int[capacity];
+        deaths = new int[DeathCause.values().length][capacity];
+        weather = new byte[capacity];
+        stepNanos = new long[capacity];
+        lastDeaths = new long[DeathCause.values().length];
+    }
+
+    /**
+     * Create a recorder that writes all the steps to a file.
+     *
+     * @param capacity The number of steps kept in memory before they are written to the file.
+     * @param spillFile The file to write to. An existing file is overwritten.
+     * @throws IOException If the file cannot be opened.
+     */
+    public MetricsRecorder(int capacity, Path spillFile) throws IOException {
+        this(capacity);
+        spill = FileChannel.open(spillFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        int columns = 2 + populations.length + deaths.length;
+        block = ByteBuffer.allocate(Integer.BYTES + this.capacity * (columns * Integer.BYTES + 1 + Long.BYTES));
+        ByteBuffer header = ByteBuffer.allocate(4 * Integer.BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putInt(populations.length).putInt(deaths.length);
+        header.flip();
+        write(header);
+    }
+
+    /**
+     * Start a new time series with the starting state of the simulation (step 0).
+     *
+     * @see SimulatorObserver
+     */
+    @Override
+    public void simulationReset(Simulator simulator) {
+        if (spill != null) {
+            flush();
+            block.clear();
+            block.putInt(RESET_MARKER);
+            block.flip();
+            write(block);
+        }
+        size = 0;
+        next = 0;
+        lastBirths = 0;
+        for (int i = 0; i < lastDeaths.length; i++) {
+            lastDeaths[i] = 0;
+        }
+        record(simulator);
+    }
+
+    /**
+     * Record the metrics of the completed step.
+     *
+     * @see SimulatorObserver
+     */
+    @Override
+    public void stepCompleted(Simulator simulator) {
+        record(simulator);
+    }
+
+    /**
+     * @return The number of steps currently held in memory.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The following methods return the metrics of a step held in memory. Steps are
+     * numbered from 0 (the oldest step in memory) to size() - 1 (the last recorded step).
+     *
+     * @param i The number of the step in memory.
+     * @return The step of the simulation.
+     */
+    public int getStep(int i) {
+        return steps[position(i)];
+    }
+
+    /**
+     * @return The population of the given species after the step.
+     */
+    public int getPopulation(Species species, int i) {
+        return populations[species.ordinal()][position(i)];
+    }
+
+    /**
+     * @return The number of animals born during the step.
+     */
+    public int getBirths(int i) {
+        return births[position(i)];
+    }
+
+    /**
+     * @return The number of animals that died for the given cause during the step.
+     */
+    public int getDeaths(DeathCause cause, int i) {
+        return deaths[cause.ordinal()][position(i)];
+    }
+
+    /**
+     * @return The weather after the step (see Weather.getState).
+     */
+    public int getWeather(int i) {
+        return weather[position(i)];
+    }
+
+    /**
+     * @return The wall time of the step, in nanoseconds.
+     */
+    public long getStepNanos(int i) {
+        return stepNanos[position(i)];
+    }
+
+    /**
+     * Write the steps held in memory to the spill file, if there is one.
+     */
+    public void flush() {
+        if (spill == null || size == 0) {
+            return;
+        }
+        block.clear();
+        block.putInt(size);
+        for (int i = 0; i < size; i++) {
+            block.putInt(getStep(i));
+        }
+        for (Species species : Species.values()) {
+            for (int i = 0; i < size; i++) {
+                block.putInt(getPopulation(species, i));
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            block.putInt(getBirths(i));
+        }
+        for (DeathCause cause : DeathCause.values()) {
+            for (int i = 0; i < size; i++) {
+                block.putInt(getDeaths(cause, i));
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            block.put((byte) getWeather(i));
+        }
+        for (int i = 0; i < size; i++) {
+            block.putLong(getStepNanos(i));
+        }
+        block.flip();
+        write(block);
+        size = 0;
+        next = 0;
+    }
+
+    /**
+     * Write the remaining steps to the spill file and close it.
+     */
+    public void close() {
+        if (spill == null) {
+            return;
+        }
+        flush();
+        try {
+            spill.close();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        spill = null;
+    }
+
+    /**
+     * Add the current state of the simulation to the buffers.
+     *
+     * @param simulator The simulator to record.
+     */
+    private void record(Simulator simulator) {
+        if (size == capacity && spill != null) {
+            flush();
+        }
+        Field field = simulator.getField();
+        VitalStatistics vitalStatistics = field.getVitalStatistics();
+
+        steps[next] = simulator.getStep();
+        for (Species species : Species.values()) {
+            populations[species.ordinal()][next] = field.getPopulation(species);
+        }
+        long totalBirths = vitalStatistics.getBirths();
+        births[next] = (int) (totalBirths - lastBirths);
+        lastBirths = totalBirths;
+        for (DeathCause cause : DeathCause.values()) {
+            long totalDeaths = vitalStatistics.getDeaths(cause);
+            deaths[cause.ordinal()][next] = (int) (totalDeaths - lastDeaths[cause.ordinal()]);
+            lastDeaths[cause.ordinal()] = totalDeaths;
+        }
+        weather[next] = (byte) simulator.getEnvironment().getWeather().getState();
+        stepNanos[next] = simulator.getLastStepNanos();
+
+        next = (next + 1) % capacity;
+        if (size < capacity) {
+            size++;
+        }
+    }
+
+    /**
+     * @param i The number of a step in memory, 0 being the oldest.
+     * @return The position of that step in the buffers.
+     */
+    private int position(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Step " + i + " is not in memory (size " + size + ").");
+        }
+        return (next - size + i + capacity) % capacity;
+    }
+
+    /**
+     * Write the whole buffer to the spill file.
+     *
+     * @param buffer The buffer to write.
+     */
+    private void write(ByteBuffer buffer) {
+        try {
+            while (buffer.hasRemaining()) {
+                spill.write(buffer);
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
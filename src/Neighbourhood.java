@@ -0,0 +1,153 @@
+import java.util.Random;
+
+/**
+ * A reusable cursor over the locations adjacent to a given location in a field.
+ * The adjacent locations are visited in a random order, without creating any
+ * lists or locations, so it can be used in the most frequent operations of the
+ * simulation (finding mates, food, free locations etc.). The locations can also be
+ * restricted to a mask of the offsets, e.g. the cells holding a given species (see
+ * Field.getNeighbours), so the other ones are not looked at.
+ *
+ * Each field provides one cursor per thread (see Field.neighbours), so a cursor
+ * must be used up before the next neighbourhood is requested on the same thread.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+public class Neighbourhood {
+    // Row and column offsets of the 8 locations adjacent to a location.
+    private static final int[] ROW_OFFSETS = { -1, -1, -1, 0, 0, 1, 1, 1 };
+    private static final int[] COL_OFFSETS = { -1, 0, 1, -1, 1, -1, 0, 1 };
+    // Number of different orders of the 8 offsets (8!).
+    private static final int PERMUTATIONS = 40320;
+
+    // The field the cursor moves over.
+    private Field field;
+    // Order in which the offsets are visited.
+    private int[] order;
+    // The location whose neighbourhood is visited.
+    private int centreRow, centreCol;
+    // Position of the cursor in the order.
+    private int position;
+    // The current adjacent location.
+    private int row, col;
+
+    /**
+     * Create a cursor for the neighbourhoods of the given field.
+     *
+     * @param field The field the cursor moves over.
+     */
+    public Neighbourhood(Field field) {
+        this.field = field;
+        order = new int[ROW_OFFSETS.length];
+    }
+
+    /**
+     * Start visiting the locations adjacent to the given one in a new random order.
+     *
+     * @param location The location whose neighbourhood we want to visit.
+     * @return This cursor, positioned before the first adjacent location.
+     */
+    public Neighbourhood start(Location location) {
+        centreRow = location.getRow();
+        centreCol = location.getCol();
+        position = 0;
+        shuffle(Randomizer.getRandom());
+        return this;
+    }
+
+    /**
+     * Move to the next adjacent location that lies within the field.
+     *
+     * @return True if there is such location, false if all of them were visited.
+     */
+    public boolean next() {
+        while (position < order.length) {
+            int offset = order[position++];
+            row = centreRow + ROW_OFFSETS[offset];
+            col = centreCol + COL_OFFSETS[offset];
+            if (row >= 0 && row < field.getDepth() && col >= 0 && col < field.getWidth()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Move to the next adjacent location that is free. As a free location it is meant
+     * a location with no other objects but Plants.
+     *
+     * @return True if there is such location, false if all of them were visited.
+     */
+    public boolean nextFree() {
+        return nextIn(field.getFreeNeighbours(centreRow, centreCol));
+    }
+
+    /**
+     * Move to the next adjacent location whose offset is in the given mask, with bit i
+     * standing for the i-th offset (see BitGrid). The mask must only hold locations that
+     * lie within the field.
+     *
+     * @param mask The mask of the offsets.
+     * @return True if there is such location, false if all of them were visited.
+     */
+    public boolean nextIn(int mask) {
+        while (position < order.length) {
+            int offset = order[position++];
+            if ((mask >> offset & 1) != 0) {
+                row = centreRow + ROW_OFFSETS[offset];
+                col = centreCol + COL_OFFSETS[offset];
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param mask A mask of the offsets (see nextIn).
+     * @return True if the offset of the current adjacent location is in the mask.
+     */
+    public boolean isIn(int mask) {
+        return (mask >> order[position - 1] & 1) != 0;
+    }
+
+    /**
+     * @return The row of the current adjacent location.
+     */
+    public int getRow() {
+        return row;
+    }
+
+    /**
+     * @return The column of the current adjacent location.
+     */
+    public int getCol() {
+        return col;
+    }
+
+    /**
+     * @return The current adjacent location.
+     */
+    public Location getLocation() {
+        return field.getLocation(row, col);
+    }
+
+    /**
+     * Create a new random order of the offsets. A single random number in [0, 8!) is
+     * decoded into the swaps of an (inside-out) Fisher-Yates shuffle, so every order is
+     * equally likely but only one random number is needed. The order only depends on
+     * that number and not on the previous order of the cursor.
+     *
+     * @param rand The random generator to use.
+     */
+    private void shuffle(Random rand) {
+        int code = rand.nextInt(PERMUTATIONS);
+        order[0] = 0;
+        for (int i = 1; i < order.length; i++) {
+            int j = code % (i + 1);
+            code /= i + 1;
+            order[i] = order[j];
+            order[j] = i;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A set of cell indices stored as a bitmap, with a coarse summary so that searches
+ * skip empty parts of a large field without looking at them. Each bit of the summary
+ * covers one word (64 cells) of the bitmap, and is set whenever a cell of that word is
+ * added. Summary bits are only cleared lazily, by the searches that find their word empty,
+ * so a search over a field that is over 90% empty costs little more than the number of
+ * occupied cells.
+ *
+ * Cells can be added and removed from several threads at the same time, e.g. while
+ * the actors of several parts of the field act in parallel. Searches must not run at
+ * the same time as changes.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+public class OccupancyMap {
+    // Atomic access to the elements of the word arrays.
+    private static final VarHandle WORD = MethodHandles.arrayElementVarHandle(long[].class);
+
+    // Number of cells in the map.
+    private final int size;
+    // One bit for each cell.
+    private final long[] words;
+    // One bit for each word of cells, set if the word may contain a cell.
+    private final long[] summary;
+
+    /**
+     * Create an empty map.
+     *
+     * @param size The number of cells.
+     */
+    public OccupancyMap(int size) {
+        this.size = size;
+        words = new long[(size + 63) >>> 6];
+        summary = new long[(words.length + 63) >>> 6];
+    }
+
+    /**
+     * Add a cell to the map.
+     *
+     * @param cell The index of the cell.
+     */
+    public void set(int cell) {
+        int w = cell >>> 6;
+        long bit = 1L << cell;
+        if ((words[w] & bit) == 0) {
+            WORD.getAndBitwiseOr(words, w, bit);
+        }
+        long summaryBit = 1L << w;
+        if ((summary[w >>> 6] & summaryBit) == 0) {
+            WORD.getAndBitwiseOr(summary, w >>> 6, summaryBit);
+        }
+    }
+
+    /**
+     * Remove a cell from the map.
+     *
+     * @param cell The index of the cell.
+     */
+    public void clear(int cell) {
+        int w = cell >>> 6;
+        long bit = 1L << cell;
+        if ((words[w] & bit) != 0) {
+            WORD.getAndBitwiseAnd(words, w, ~bit);
+        }
+    }
+
+    /**
+     * @param cell The index of a cell.
+     * @return True if the cell is in the map.
+     */
+    public boolean get(int cell) {
+        return (words[cell >>> 6] & 1L << cell) != 0;
+    }
+
+    /**
+     * Remove all cells from the map. Only the words marked in the summary are cleared.
+     */
+    public void clear() {
+        for (int s = 0; s < summary.length; s++) {
+            long bits = summary[s];
+            while (bits != 0) {
+                words[(s << 6) + Long.numberOfTrailingZeros(bits)] = 0;
+                bits &= bits - 1;
+            }
+            summary[s] = 0;
+        }
+    }
+
+    /**
+     * Find the first cell in the map at or after the given one.
+     *
+     * @param from The index of the cell to start from.
+     * @return The index of the cell, or -1 if there is none.
+     */
+    public int next(int from) {
+        if (from >= size) {
+            return -1;
+        }
+        int w = from >>> 6;
+        long word = words[w] & -1L << from;
+        while (word == 0) {
+            w = nextWord(w + 1);
+            if (w < 0) {
+                return -1;
+            }
+            word = words[w];
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Find the first cell at or after the given one that is in this map or in the other.
+     * Both maps must have the same size.
+     *
+     * @param other The other map.
+     * @param from The index of the cell to start from.
+     * @return The index of the cell, or -1 if there is none.
+     */
+    public int nextInEither(OccupancyMap other, int from) {
+        if (from >= size) {
+            return -1;
+        }
+        int w = from >>> 6;
+        long word = (words[w] | other.words[w]) & -1L << from;
+        while (word == 0) {
+            int mine = nextWord(w + 1);
+            int theirs = other.nextWord(w + 1);
+            w = mine < 0 ? theirs : theirs < 0 ? mine : Math.min(mine, theirs);
+            if (w < 0) {
+                return -1;
+            }
+            word = words[w] | other.words[w];
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Find the first word at or after the given one that contains a cell. Summary bits
+     * of empty words found on the way are cleared.
+     *
+     * @param from The index of the word to start from.
+     * @return The index of the word, or -1 if there is none.
+     */
+    private int nextWord(int from) {
+        int s = from >>> 6;
+        if (s >= summary.length) {
+            return -1;
+        }
+        long bits = summary[s] & -1L << from;
+        while (true) {
+            while (bits == 0) {
+                s++;
+                if (s >= summary.length) {
+                    return -1;
+                }
+                bits = summary[s];
+            }
+            int w = (s << 6) + Long.numberOfTrailingZeros(bits);
+            if (words[w] != 0) {
+                return w;
+            }
+            // The word was emptied since it was marked.
+            WORD.getAndBitwiseAnd(summary, s, ~(1L << w));
+            bits &= bits - 1;
+        }
+    }
+}
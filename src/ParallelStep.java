@@ -0,0 +1,206 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * A step strategy that runs the actors on several threads.
+ * The field is partitioned into horizontal stripes of rows. An actor only ever
+ * looks at, moves to or gives birth into locations adjacent to its own, so actors
+ * in stripes that are not next to each other can never touch the same location.
+ * Every step therefore runs in two phases: first all even stripes act concurrently,
+ * then all odd stripes.
+ *
+ * Each stripe uses its own random generator derived from the seed, the step and the
+ * index of the stripe, and the actors are assigned to the stripes in the order of the
+ * list of actors. The stripes do not depend on the number of threads, so a given seed
+ * always gives the same results. The species profiles bound to the calling thread (see
+ * SpeciesProfile.bind) are bound to the threads of the stripes too.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+public class ParallelStep implements StepStrategy {
+    // The default number of rows in a stripe.
+    private static final int DEFAULT_STRIPE_HEIGHT = 8;
+    // Actors reach one row outside of their stripe, so stripes acting at the same
+    // time must be separated by at least two rows.
+    private static final int MIN_STRIPE_HEIGHT = 2;
+
+    // The pool running the stripes.
+    private ForkJoinPool pool;
+    // The number of rows in a stripe.
+    private int stripeHeight;
+    // Actors of each stripe in the current step.
+    private List<List<Actor>> stripeActors;
+    // Actors created by each stripe in the current step.
+    private List<List<Actor>> stripeNewActors;
+    // Random streams of the stripes, reseeded at every step.
+    private List<RandomStream> stripeRandoms;
+    // The seed of the simulation, from which the streams of the stripes are derived.
+    private long seed;
+
+    /**
+     * Create a parallel step strategy with the default stripe height.
+     *
+     * @param threads The number of threads to be used.
+     */
+    public ParallelStep(int threads) {
+        this(threads, DEFAULT_STRIPE_HEIGHT);
+    }
+
+    /**
+     * Create a parallel step strategy.
+     *
+     * @param threads The number of threads to be used. Must be at least 1.
+     * @param stripeHeight The number of rows in each stripe. Must be at least 2.
+     */
+    public ParallelStep(int threads, int stripeHeight) {
+        if (threads < 1) {
+            System.out.println("The number of threads must be at least one.");
+            System.out.println("Using one thread.");
+            threads = 1;
+        }
+        if (stripeHeight < MIN_STRIPE_HEIGHT) {
+            System.out.println("The stripe height must be at least " + MIN_STRIPE_HEIGHT + ".");
+            System.out.println("Using default value (" + DEFAULT_STRIPE_HEIGHT + ").");
+            stripeHeight = DEFAULT_STRIPE_HEIGHT;
+        }
+        this.stripeHeight = stripeHeight;
+        pool = new ForkJoinPool(threads);
+        stripeActors = new ArrayList<>();
+        stripeNewActors = new ArrayList<>();
+        stripeRandoms = new ArrayList<>();
+        seed = Randomizer.getSeed();
+    }
+
+    /**
+     * Let all actors act, two phases of non-adjacent stripes at a time.
+     * Actors without a location (e.g. the weather) act first, on the calling thread.
+     *
+     * @see StepStrategy
+     */
+    @Override
+    public void step(List<Actor> actors, Field field, int step) {
+        int stripes = (field.getDepth() + stripeHeight - 1) / stripeHeight;
+        prepareStripes(stripes);
+
+        List<Actor> newActors = new ArrayList<>();
+        for (Actor actor : actors) {
+            Location location = getLocation(actor);
+            if (location == null) {
+                actor.act(newActors);
+            }
+            else {
+                stripeActors.get(location.getRow() / stripeHeight).add(actor);
+            }
+        }
+
+        SpeciesProfile[] profiles = SpeciesProfile.getBound();
+        runPhase(0, stripes, step, profiles);
+        runPhase(1, stripes, step, profiles);
+
+        actors.removeIf(actor -> !actor.isActive());
+        actors.addAll(newActors);
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            actors.addAll(stripeNewActors.get(stripe));
+        }
+    }
+
+    /**
+     * @see StepStrategy
+     */
+    @Override
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Stop the threads used by this strategy. It cannot be used afterwards.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Let all actors of every second stripe act concurrently.
+     *
+     * @param phase 0 for the even stripes, 1 for the odd ones.
+     * @param stripes The number of stripes.
+     * @param step The number of the current step.
+     * @param profiles The profiles bound to the calling thread, which the actors of the
+     *                 stripes use on any thread (null to use the loaded ones).
+     */
+    private void runPhase(int phase, int stripes, int step, SpeciesProfile[] profiles) {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int stripe = phase; stripe < stripes; stripe += 2) {
+            List<Actor> actors = stripeActors.get(stripe);
+            List<Actor> newActors = stripeNewActors.get(stripe);
+            RandomStream random = stripeRandoms.get(stripe);
+            random.setSeed(Randomizer.deriveSeed(seed, step, stripe));
+            tasks.add(() -> {
+                Random boundRandom = Randomizer.getBound();
+                SpeciesProfile[] boundProfiles = SpeciesProfile.getBound();
+                Randomizer.bind(random);
+                SpeciesProfile.bind(profiles);
+                try {
+                    for (Actor actor : actors) {
+                        actor.act(newActors);
+                    }
+                }
+                finally {
+                    Randomizer.bind(boundRandom);
+                    SpeciesProfile.bind(boundProfiles);
+                }
+                return null;
+            });
+        }
+        for (Future<Void> result : pool.invokeAll(tasks)) {
+            try {
+                result.get();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the step to finish.", e);
+            }
+            catch (ExecutionException e) {
+                throw new IllegalStateException("An actor failed to act.", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Make sure there is an empty list of actors and new actors, and a random stream,
+     * for each stripe.
+     *
+     * @param stripes The number of stripes.
+     */
+    private void prepareStripes(int stripes) {
+        while (stripeActors.size() < stripes) {
+            stripeActors.add(new ArrayList<>());
+            stripeNewActors.add(new ArrayList<>());
+            stripeRandoms.add(new RandomStream(0));
+        }
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            stripeActors.get(stripe).clear();
+            stripeNewActors.get(stripe).clear();
+        }
+    }
+
+    /**
+     * @param actor An actor of the simulation.
+     * @return The location of the actor, or null if it is not placed in the field.
+     */
+    private Location getLocation(Actor actor) {
+        if (actor instanceof Animal) {
+            return ((Animal) actor).getLocation();
+        }
+        if (actor instanceof Drawable) {
+            return ((Drawable) actor).getLocation();
+        }
+        return null;
+    }
+}
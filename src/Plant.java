@@ -1,8 +1,4 @@
-import sun.corba.EncapsInputStreamFactory;
-
-import java.util.EventListener;
 import java.util.List;
-import java.util.Stack;
 
 /**
  * A simple model of a plant.
@@ -22,7 +18,12 @@ public class Plant implements Actor, Drawable{
     private int age;
     private int foodValue;
 
-    private static final int MAX_AGE = 100;
+    // The age at which plants die.
+    static final int MAX_AGE = 100;
+    // New plants get a random age and food value below these. Most new plants are thus
+    // older than MAX_AGE and die in their first act, after spreading like any other plant.
+    static final int MAX_START_AGE = 500;
+    static final int MAX_START_FOOD_VALUE = 5;
 
     /**
      * Create a new plant.
@@ -35,10 +36,10 @@ public class Plant implements Actor, Drawable{
         this.location = location;
         setLocation(location);
         this.environment = environment;
-        foodValue = Randomizer.getRandom().nextInt(5);
+        foodValue = Randomizer.getRandom().nextInt(MAX_START_FOOD_VALUE);
 
 
-        age = Randomizer.getRandom().nextInt(500);
+        age = Randomizer.getRandom().nextInt(MAX_START_AGE);
         alive = true;
 
     }
@@ -57,6 +58,24 @@ public class Plant implements Actor, Drawable{
     public int getFoodValue(){
         return foodValue;
     }
+    /**
+     * @return The age of the plant.
+     */
+    public int getAge(){
+        return age;
+    }
+
+    /**
+     * Set the age and food value of the plant, e.g. when the simulation is restored
+     * from a snapshot.
+     * @param age The age of the plant.
+     * @param foodValue The food value of the plant.
+     */
+    public void restoreState(int age, int foodValue){
+        this.age = age;
+        this.foodValue = foodValue;
+    }
+
     /**
      * The following 3 methods are described in the drawable interface.
      */
@@ -105,49 +124,37 @@ public class Plant implements Actor, Drawable{
 
     /**
      * Removes a plant from the field.
-     * If there is an animal on the plant, the animal will be popped out the stack to be replaced after
-     * the removal of the plant.
+     * If there is an animal on the plant, the animal stays in its place.
      */
     public void setDead(){
         alive = false;
-        Stack<Object> stack = field.getField()[location.getRow()][location.getCol()];
-        if(location != null && stack.size() == 2) {
-            Object obj = stack.pop();
-            field.clear(location);
-            field.place(obj, location);
-            location = null;
-            field = null;
-        }else if (location != null && stack.size() == 1){
-            field.clear(location);
+        if(location != null) {
+            field.clearPlant(location);
             location = null;
             field = null;
         }
-
     }
 
     /**
      * Depending on the weather, this plant spawns a number of new plants around itself.
      * If a position is already taken by a plant, a new plant cannot be spawned.
      * If a position is taken by an animal, the new plant is placed under the animal.
-     * (See field stack implementation)
+     * (See field layers implementation)
+     * The new plants get a random age below MAX_START_AGE, so most of them only spread once
+     * before they die.
      * @param newPlants
      */
     public void spawnPlants(List<Actor> newPlants){
-        List<Location> locations = field.adjacentLocations(location);
         int noOfPlant = environment.getWeather().getConditions();
-        for (int i = 0; i < locations.size() && noOfPlant > 0 ; i++, noOfPlant--){
-            Location l = locations.get(i);
-            if (field.getField()[l.getRow()][l.getCol()].empty()){
-                Plant newPlant = new Plant(field, l, environment);
-                newPlants.add(newPlant);
-            }
-            else if (field.getField()[l.getRow()][l.getCol()].size() == 1 && !(field.getObjectAt(l) instanceof Plant)) {
-                Object obj = field.getField()[l.getRow()][l.getCol()].pop();
-                Plant newPlant = new Plant(field, l, environment);
+        if (noOfPlant == 0){
+            return;
+        }
+        Neighbourhood neighbours = field.neighbours(location);
+        for (; noOfPlant > 0 && neighbours.next(); noOfPlant--){
+            if (field.getPlantAt(neighbours.getRow(), neighbours.getCol()) == null){
+                Plant newPlant = new Plant(field, neighbours.getLocation(), environment);
                 newPlants.add(newPlant);
-                field.place(obj , l);
             }
-
         }
     }
 
@@ -0,0 +1,260 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Simulates all the plants of a field as primitive arrays with an entry for every cell, as an
+ * alternative to creating a Plant object for every plant. Plants easily outnumber the animals,
+ * and every Plant acts on its own: it visits its neighbours twice to spread and then grows.
+ *
+ * The layer is a single actor without a location. During its turn all plants are updated
+ * together, with passes over the arrays that the JIT compiler can turn into vector instructions:
+ * the number of plants around every cell is counted, all plants grow and age, the plants that
+ * are too old die, and then new plants spread into the empty cells around the plants. A Plant
+ * visits a random part of its neighbours, depending on the weather, so each plant around an
+ * empty cell seeds it with a fixed probability; an empty cell with k plants around it gets a
+ * new plant with probability 1 - (1 - p)^k, using one random number. The plants therefore
+ * spread at the same rate as Plant objects (except at the edges of the field, where a Plant
+ * has fewer neighbours to choose from), but not with the same random numbers.
+ *
+ * So that the rest of the simulation (animals, statistics, views) can see the plants, each
+ * one is represented in the plant layer of the field by Species.PLANT. Animals eat the plants
+ * through the field (see Field.eatPlant).
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+public class PlantLayer implements Actor {
+    // The largest number of plants around a cell.
+    private static final int MAX_NEIGHBOURS = 8;
+
+    // The field the plants grow in.
+    private final Field field;
+    // The environment of the plants.
+    private final Environment environment;
+    // The depth and width of the field.
+    private final int depth, width;
+    // 1 if there is a plant in the cell, 0 otherwise.
+    private final byte[] plants;
+    // The age and food value of the plant in each cell. Empty cells hold no meaningful values.
+    private final int[] ages;
+    private final int[] foodValues;
+    // The number of plants in each cell and the cells left and right of it, and then
+    // the number of plants around each cell.
+    private final byte[] rowCounts;
+    private final byte[] neighbourCounts;
+    // The probability that an empty cell gets a new plant, indexed by the number of plants around it.
+    private final double[] seedProbabilities;
+
+    /**
+     * Create an empty layer.
+     *
+     * @param field The field the plants grow in.
+     * @param environment The environment of the plants.
+     */
+    public PlantLayer(Field field, Environment environment) {
+        this.field = field;
+        this.environment = environment;
+        depth = field.getDepth();
+        width = field.getWidth();
+        plants = new byte[depth * width];
+        ages = new int[depth * width];
+        foodValues = new int[depth * width];
+        rowCounts = new byte[depth * width];
+        neighbourCounts = new byte[depth * width];
+        seedProbabilities = new double[MAX_NEIGHBOURS + 1];
+    }
+
+    /**
+     * Remove all the plants from the layer. The field is not changed.
+     */
+    public void clear() {
+        Arrays.fill(plants, (byte) 0);
+    }
+
+    /**
+     * Create a plant and place it in the field, like the constructor of Plant does.
+     * Plants can be created in different cells from several threads at the same time.
+     *
+     * @param location Where to place the plant. Must not hold another plant.
+     */
+    public void spawn(Location location) {
+        Random rand = Randomizer.getRandom();
+        int foodValue = rand.nextInt(Plant.MAX_START_FOOD_VALUE);
+        int age = rand.nextInt(Plant.MAX_START_AGE);
+        restore(location, age, foodValue);
+    }
+
+    /**
+     * Place a plant with the given state in the field, e.g. when the simulation is
+     * restored from a snapshot.
+     *
+     * @param location Where to place the plant. Must not hold another plant.
+     * @param age The age of the plant.
+     * @param foodValue The food value of the plant.
+     */
+    public void restore(Location location, int age, int foodValue) {
+        int cell = location.getRow() * width + location.getCol();
+        plants[cell] = 1;
+        ages[cell] = age;
+        foodValues[cell] = foodValue;
+        field.place(Species.PLANT, location);
+    }
+
+    /**
+     * @param cell A cell of the field (row * width + col).
+     * @return True if there is a plant in the cell.
+     */
+    public boolean isPlant(int cell) {
+        return plants[cell] != 0;
+    }
+
+    /**
+     * @param cell A cell of the field (row * width + col).
+     * @return The age of the plant in the cell.
+     */
+    public int getAge(int cell) {
+        return ages[cell];
+    }
+
+    /**
+     * @param cell A cell of the field (row * width + col).
+     * @return The food value of the plant in the cell, or -1 if there is no plant.
+     */
+    public int getFoodValue(int cell) {
+        return plants[cell] != 0 ? foodValues[cell] : -1;
+    }
+
+    /**
+     * Remove the plant in a cell because it was eaten. An animal standing on the plant
+     * stays where it is.
+     *
+     * @param cell A cell of the field (row * width + col).
+     * @return The food value of the plant, or -1 if there is no plant.
+     */
+    public int eat(int cell) {
+        if (plants[cell] == 0) {
+            return -1;
+        }
+        remove(cell);
+        return foodValues[cell];
+    }
+
+    /**
+     * Let all the plants act at once (see Plant.act). The plants are counted before they grow
+     * and die, so the plants that die of old age still spread, and new plants first grow in
+     * the next step.
+     *
+     * @param newActors Not used, new plants are added to the layer.
+     * @see Actor
+     */
+    @Override
+    public void act(List<Actor> newActors) {
+        int conditions = environment.getWeather().getConditions();
+        if (conditions > 0) {
+            countNeighbours();
+        }
+        grow(conditions);
+        for (int cell = 0; cell < plants.length; cell++) {
+            if (plants[cell] != 0 && ages[cell] >= Plant.MAX_AGE) {
+                remove(cell);
+            }
+        }
+        if (conditions > 0) {
+            spread(conditions);
+        }
+    }
+
+    /**
+     * The layer stays in the simulation even when all its plants are dead.
+     *
+     * @return True.
+     * @see Actor
+     */
+    @Override
+    public boolean isActive() {
+        return true;
+    }
+
+    /**
+     * Count the plants around every cell: first the plants in each cell and the cells left
+     * and right of it, and then these counts in the rows above, at and below each cell.
+     */
+    private void countNeighbours() {
+        for (int row = 0; row < depth; row++) {
+            int start = row * width;
+            int end = start + width - 1;
+            rowCounts[start] = (byte) (plants[start] + (width > 1 ? plants[start + 1] : 0));
+            for (int cell = start + 1; cell < end; cell++) {
+                rowCounts[cell] = (byte) (plants[cell - 1] + plants[cell] + plants[cell + 1]);
+            }
+            if (end > start) {
+                rowCounts[end] = (byte) (plants[end - 1] + plants[end]);
+            }
+        }
+        for (int row = 0; row < depth; row++) {
+            int start = row * width;
+            int end = start + width;
+            for (int cell = start; cell < end; cell++) {
+                neighbourCounts[cell] = (byte) (rowCounts[cell] - plants[cell]);
+            }
+            if (row > 0) {
+                for (int cell = start; cell < end; cell++) {
+                    neighbourCounts[cell] += rowCounts[cell - width];
+                }
+            }
+            if (row < depth - 1) {
+                for (int cell = start; cell < end; cell++) {
+                    neighbourCounts[cell] += rowCounts[cell + width];
+                }
+            }
+        }
+    }
+
+    /**
+     * Make all plants grow and get older (see Plant.grow). Empty cells are updated as well,
+     * so the loops have no branches; their values are set when a plant is placed in them.
+     *
+     * @param conditions The weather conditions (see Weather.getConditions).
+     */
+    private void grow(int conditions) {
+        if (environment.isDay()) {
+            int growth = conditions == 4 ? 2 : 1; // Plants grow faster when it is raining.
+            for (int cell = 0; cell < foodValues.length; cell++) {
+                foodValues[cell] += growth;
+            }
+        }
+        for (int cell = 0; cell < ages.length; cell++) {
+            ages[cell]++;
+        }
+    }
+
+    /**
+     * Spread new plants into the empty cells around the plants (see Plant.spawnPlants).
+     * A plant spreads twice, each time into the given number of randomly chosen cells
+     * around it, out of eight.
+     *
+     * @param conditions The weather conditions (see Weather.getConditions).
+     */
+    private void spread(int conditions) {
+        double missed = Math.pow(1 - Math.min(conditions, MAX_NEIGHBOURS) / (double) MAX_NEIGHBOURS, 2);
+        for (int count = 0; count <= MAX_NEIGHBOURS; count++) {
+            seedProbabilities[count] = 1 - Math.pow(missed, count);
+        }
+        Random rand = Randomizer.getRandom();
+        for (int cell = 0; cell < plants.length; cell++) {
+            int count = neighbourCounts[cell];
+            if (count > 0 && plants[cell] == 0 && rand.nextDouble() < seedProbabilities[count]) {
+                spawn(field.getLocation(cell / width, cell % width));
+            }
+        }
+    }
+
+    /**
+     * Remove the plant in a cell from the layer and the field.
+     */
+    private void remove(int cell) {
+        plants[cell] = 0;
+        field.clearPlant(field.getLocation(cell / width, cell % width));
+    }
+}
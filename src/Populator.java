@@ -0,0 +1,212 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Fills the field of a simulation with animals and plants when it starts.
+ *
+ * Every cell gets a plant with the creation probability of plants, and an animal: a fox with
+ * the creation probability of foxes, otherwise a rabbit with the creation probability of
+ * rabbits, and so on for deer, lions and bears. Instead of trying every species in every cell,
+ * the populator jumps straight to the next cell with a plant and to the next cell with an
+ * animal, as the number of cells in between follows a geometric distribution, and then chooses
+ * the species of the animal with one more random number. Sparse fields are therefore filled in
+ * time proportional to the number of animals and plants, not to the number of cells.
+ *
+ * New plants get a random age like the plants they spread, so most of them are too old to
+ * live through their first step. They are created anyway, as they spread before they die.
+ *
+ * The field is filled in chunks of rows, each with its own random stream derived from one
+ * number of the simulation's generator, so the result does not depend on the number of threads.
+ * The chunks are filled in parallel, except when the animals are kept in an entity store,
+ * which can only add one animal at a time.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+public class Populator {
+    // The animal species, in the order in which they are tried.
+    private static final Species[] ANIMALS = {
+        Species.FOX, Species.RABBIT, Species.DEER, Species.LION, Species.BEAR
+    };
+    // The number of cells of a chunk, at least one row.
+    private static final int CHUNK_CELLS = 1 << 16;
+
+    // The field to be filled.
+    private final Field field;
+    // The environment of the animals and plants.
+    private final Environment environment;
+
+    // The probability that a cell gets a plant, and that it gets an animal.
+    private double plantProbability;
+    private double animalProbability;
+    // The probability that a cell gets an animal of one of the first species, indexed like ANIMALS.
+    private final double[] cumulativeProbabilities;
+
+    /**
+     * Create a populator for the given field.
+     *
+     * @param field The field to be filled.
+     * @param environment The environment of the animals and plants.
+     */
+    public Populator(Field field, Environment environment) {
+        this.field = field;
+        this.environment = environment;
+        cumulativeProbabilities = new double[ANIMALS.length];
+    }
+
+    /**
+     * Fill the field, which must be empty, with randomly placed animals and plants.
+     *
+     * @param probabilities The probability that each species is created in any given cell,
+     *                      indexed by the species' ordinal.
+     * @param actors The list to which the animals and plants created as objects are added.
+     * @param animalSystem The system keeping the animals, null if every animal is an object.
+     * @param plantLayer The layer keeping the plants, null if every plant is an object.
+     */
+    public void populate(double[] probabilities, List<Actor> actors, AnimalSystem animalSystem,
+                         PlantLayer plantLayer) {
+        plantProbability = probabilities[Species.PLANT.ordinal()];
+        double none = 1;
+        for (int i = 0; i < ANIMALS.length; i++) {
+            double probability = probabilities[ANIMALS[i].ordinal()];
+            cumulativeProbabilities[i] = (i > 0 ? cumulativeProbabilities[i - 1] : 0) + none * probability;
+            none *= 1 - probability;
+        }
+        animalProbability = cumulativeProbabilities[ANIMALS.length - 1];
+
+        int width = field.getWidth();
+        int cells = field.getDepth() * width;
+        int chunkCells = Math.max(1, CHUNK_CELLS / width) * width;
+        long seed = Randomizer.getRandom().nextLong();
+        SpeciesProfile[] profiles = SpeciesProfile.getBound();
+
+        List<Callable<List<Actor>>> tasks = new ArrayList<>();
+        for (int from = 0, chunk = 0; from < cells; from += chunkCells, chunk++) {
+            RandomStream random = new RandomStream(RandomStream.mix(seed + chunk));
+            int start = from;
+            int end = Math.min(from + chunkCells, cells);
+            tasks.add(() -> fill(start, end, random, profiles, animalSystem, plantLayer));
+        }
+
+        if (animalSystem != null || tasks.size() == 1) {
+            for (Callable<List<Actor>> task : tasks) {
+                try {
+                    actors.addAll(task.call());
+                }
+                catch (Exception e) {
+                    throw new IllegalStateException("The field could not be populated.", e);
+                }
+            }
+            return;
+        }
+        for (Future<List<Actor>> result : ForkJoinPool.commonPool().invokeAll(tasks)) {
+            try {
+                actors.addAll(result.get());
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while populating the field.", e);
+            }
+            catch (ExecutionException e) {
+                throw new IllegalStateException("The field could not be populated.", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Fill a chunk of the field, cell by cell. Where a cell gets both, the plant is created first.
+     *
+     * @param start The first cell of the chunk.
+     * @param end The cell after the last one of the chunk.
+     * @param random The random stream of the chunk.
+     * @param profiles The profiles of the species, null to use the loaded ones.
+     * @param animalSystem The system keeping the animals, null if every animal is an object.
+     * @param plantLayer The layer keeping the plants, null if every plant is an object.
+     * @return The animals and plants created as objects.
+     */
+    private List<Actor> fill(int start, int end, RandomStream random, SpeciesProfile[] profiles,
+                             AnimalSystem animalSystem, PlantLayer plantLayer) {
+        // The animals and plants use the random stream of the chunk on any thread.
+        Random boundRandom = Randomizer.getBound();
+        SpeciesProfile[] boundProfiles = SpeciesProfile.getBound();
+        Randomizer.bind(random);
+        SpeciesProfile.bind(profiles);
+        try {
+            List<Actor> created = new ArrayList<>();
+            int width = field.getWidth();
+            int plantCell = next(random, start, plantProbability);
+            int animalCell = next(random, start, animalProbability);
+            while (plantCell < end || animalCell < end) {
+                if (plantCell <= animalCell) {
+                    Location location = field.getLocation(plantCell / width, plantCell % width);
+                    if (plantLayer != null) {
+                        plantLayer.spawn(location);
+                    }
+                    else {
+                        created.add(new Plant(field, location, environment));
+                    }
+                    plantCell = next(random, plantCell + 1, plantProbability);
+                }
+                else {
+                    Location location = field.getLocation(animalCell / width, animalCell % width);
+                    double choice = random.nextDouble() * animalProbability;
+                    int s = 0;
+                    while (s < ANIMALS.length - 1 && choice >= cumulativeProbabilities[s]) {
+                        s++;
+                    }
+                    if (animalSystem != null) {
+                        animalSystem.spawn(ANIMALS[s], location, true);
+                    }
+                    else {
+                        created.add(createAnimal(ANIMALS[s], location));
+                    }
+                    animalCell = next(random, animalCell + 1, animalProbability);
+                }
+            }
+            return created;
+        }
+        finally {
+            Randomizer.bind(boundRandom);
+            SpeciesProfile.bind(boundProfiles);
+        }
+    }
+
+    /**
+     * Find the next cell that gets a plant or an animal. The number of cells that are
+     * skipped follows a geometric distribution.
+     *
+     * @param random The random stream of the chunk.
+     * @param cell The first cell that may be chosen.
+     * @param probability The probability that a cell is chosen.
+     * @return The chosen cell, or Integer.MAX_VALUE if none will be chosen.
+     */
+    private static int next(Random random, int cell, double probability) {
+        if (probability <= 0) {
+            return Integer.MAX_VALUE;
+        }
+        if (probability >= 1) {
+            return cell;
+        }
+        double skipped = Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - probability));
+        return skipped < Integer.MAX_VALUE - cell ? cell + (int) skipped : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Create an animal of random age of the given species.
+     */
+    private Animal createAnimal(Species species, Location location) {
+        switch (species) {
+            case FOX: return new Fox(true, field, location, environment);
+            case RABBIT: return new Rabbit(true, field, location, environment);
+            case DEER: return new Deer(true, field, location, environment);
+            case LION: return new Lion(true, field, location, environment);
+            case BEAR: return new Bear(true, field, location, environment);
+            default: throw new IllegalArgumentException(species.getName() + " is not an animal.");
+        }
+    }
+}
@@ -1,10 +1,6 @@
-import java.util.Arrays;
-import java.util.Iterator;
-import java.util.List;
-
 /**
  * This interface contains all the common behaviours that predators share.
- * A predator can hunt determined species.
+ * A predator can hunt the species in the diet of its SpeciesProfile.
  * @author Jacopo Madaluni & Luka Kralj
  * @version 2018.02 (2)
  */
@@ -18,27 +14,32 @@ public interface Predator  extends Actor{
      */
     default Location hunt(Animal animal)
     {
+        // The species hunted, as a mask of their ordinals.
+        int diet = animal.getProfile().getDiet() & ~(1 << Species.PLANT.ordinal());
+        if (diet == 0) {
+            return null;
+        }
         Field field = animal.getField();
-        List<Location> adjacent = field.adjacentLocations(animal.getLocation());
-        Iterator<Location> it = adjacent.iterator();
-        while(it.hasNext() && animal.getEnvironment().getWeather().getVision() >= Randomizer.getRandom().nextDouble()) {
-            Location where = it.next();
-            Object an = field.getObjectAt(where);
-            if(an != null && Arrays.asList(getHuntedAnimals()).contains(an.getClass())) {
+        Location location = animal.getLocation();
+        Neighbourhood neighbours = field.neighbours(location);
+        // The cells holding prey. The others are still visited, as each visit needs good
+        // enough vision, but they are not looked at.
+        int preyCells = field.getNeighbours(diet, location.getRow(), location.getCol());
+        while(neighbours.next() && animal.getEnvironment().getWeather().getVision() >= Randomizer.getRandom().nextDouble()) {
+            if(!neighbours.isIn(preyCells)) {
+                continue;
+            }
+            Object an = field.getObjectAt(neighbours.getRow(), neighbours.getCol());
+            if(an instanceof Animal) {
                 Animal prey = (Animal) an;
-                if(prey.isAlive()) {
-                    prey.setDead();
-                    animal.setFoodLevel(prey.getFoodValue());
-                    return where;
+                if((diet & 1 << prey.getProfile().getSpecies().ordinal()) != 0 && prey.isAlive()) {
+                    prey.setDead(DeathCause.PREDATION);
+                    animal.setFoodLevel(prey.getProfile().getFoodValue());
+                    return neighbours.getLocation();
                 }
             }
         }
         return null;
     }
 
-    /**
-     * @return The list of animals that every predator specie hunts.
-     */
-    Class[] getHuntedAnimals();
-
 }
@@ -4,7 +4,7 @@ public interface Prey extends Actor{
 
 
     default List<Location> getSafeLocations(Animal animal){
-        return new ArrayList<>();
+        return Collections.emptyList();
     }
 
 
@@ -10,29 +10,7 @@ import java.util.Random;
  */
 public class Rabbit extends Animal implements Prey, Herbivore, Drawable
 {
-    // Characteristics shared by all rabbits (class variables).
-
-    // The age at which a rabbit can start to breed.
-    private static final int BREEDING_AGE = 5;
-    // The age to which a rabbit can live.
-    private static final int MAX_AGE = 100;
-    // The likelihood of a rabbit breeding.
-    private static final double BREEDING_PROBABILITY = 0.80; //default 0.12
-    // The maximum number of births.
-    private static final int MAX_LITTER_SIZE = 4;
-
-    private static final int RABBIT_FOOD_VALUE = 2;
-
-    private static final double DISEASE_PROBABILITY = 0.01;
-
-    private static final int MAX_FOOD_VALUE = 10;
-
-    private static final int DAYS_TO_WAIT = 6;
-    // A shared random number generator to control breeding.
-    //private static final Random rand = Randomizer.getRandom();
-    
-    // Individual characteristics (instance fields).
-    
+    // The parameters of rabbits are defined in their SpeciesProfile.
 
     /**
      * Create a new rabbit. A rabbit may be created with age
@@ -56,37 +34,10 @@ public class Rabbit extends Animal implements Prey, Herbivore, Drawable
 
 
     @Override
-    public int getMaxAge()
+    public Species getSpecies()
     {
-        return MAX_AGE;
-    }
-    @Override
-    protected double getBreedingProbability(){
-        return BREEDING_PROBABILITY;
-    }
-    @Override
-    protected int getBreedingAge(){
-        return BREEDING_AGE;
+        return Species.RABBIT;
     }
-    @Override
-    protected int getMaxLitterSize(){
-        return MAX_LITTER_SIZE;
-    }
-    @Override
-    protected int getDaysToWait(){
-        return DAYS_TO_WAIT;
-    }
-    @Override
-    protected int getFoodValue(){
-        return RABBIT_FOOD_VALUE;
-    }
-    @Override
-    protected int getMaxFoodValue(){
-        return MAX_FOOD_VALUE;
-    }
-    @Override
-    protected double getDiseaseProbability(){ return DISEASE_PROBABILITY; }
-
     /**
      * @see Herbivore
      * Find plants is described in the Herbivore interface
@@ -110,11 +61,10 @@ public class Rabbit extends Animal implements Prey, Herbivore, Drawable
             return;
         }
         Field field = getField();
-        List<Location> free = field.getFreeAdjacentLocations(getLocation());
+        Neighbourhood free = field.neighbours(getLocation());
         int births = breed();
-        for(int b = 0; b < births && free.size() > 0; b++) {
-            Location loc = free.remove(0);
-            Rabbit young = new Rabbit(false, field, loc, getEnvironment());
+        for(int b = 0; b < births && free.nextFree(); b++) {
+            Rabbit young = new Rabbit(false, field, free.getLocation(), getEnvironment());
             newRabbits.add(young);
         }
     }
@@ -0,0 +1,104 @@
+import java.util.Random;
+
+/**
+ * A fast, unsynchronized random generator based on the SplitMix64 algorithm.
+ * Its whole state is a single counter, so a stream can be created cheaply for any seed
+ * and reseeded without allocating a new object.
+ * It can be used anywhere a Random is expected, but a stream must not be shared
+ * between threads.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+public class RandomStream extends Random {
+    private static final long serialVersionUID = 1L;
+    // Increment of the counter (the golden ratio as a 64 bit fraction).
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    // The state of the stream. Not initialised here as Random's constructor sets it through setSeed.
+    private long state;
+
+    /**
+     * Create a new stream.
+     *
+     * @param seed The seed of the stream.
+     */
+    public RandomStream(long seed) {
+        super(seed);
+    }
+
+    /**
+     * Start the stream again from the given seed.
+     *
+     * @param seed The new seed of the stream.
+     */
+    @Override
+    public void setSeed(long seed) {
+        state = seed;
+    }
+
+    /**
+     * @return The current position of the stream, which can be used to continue it later.
+     */
+    public long getState() {
+        return state;
+    }
+
+    /**
+     * Continue the stream from a position returned by getState.
+     *
+     * @param state The position of the stream.
+     */
+    public void setState(long state) {
+        this.state = state;
+    }
+
+    /**
+     * @see Random
+     */
+    @Override
+    public long nextLong() {
+        state += GOLDEN_GAMMA;
+        return mix(state);
+    }
+
+    /**
+     * Unlike Random, which keeps the second of each pair of values it generates for the next
+     * call, this generates a new pair every time, so the whole state of the stream stays in
+     * the counter and setSeed and setState fully determine the values that follow.
+     *
+     * @see Random
+     */
+    @Override
+    public double nextGaussian() {
+        double v1, v2, s;
+        do {
+            v1 = 2 * nextDouble() - 1;
+            v2 = 2 * nextDouble() - 1;
+            s = v1 * v1 + v2 * v2;
+        } while (s >= 1 || s == 0);
+        return v1 * StrictMath.sqrt(-2 * StrictMath.log(s) / s);
+    }
+
+    /**
+     * All other methods of Random (nextInt, nextDouble, nextBoolean...) are based on this one.
+     *
+     * @see Random
+     */
+    @Override
+    protected int next(int bits) {
+        return (int) (nextLong() >>> (64 - bits));
+    }
+
+    /**
+     * Scramble the bits of a value, so that close values give unrelated results.
+     *
+     * @param z The value to be scrambled.
+     * @return The scrambled value.
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -4,6 +4,16 @@ import java.util.Random;
  * Provide control over the randomization of the simulation. By using the shared, fixed-seed 
  * randomizer, repeated runs will perform exactly the same (which helps with testing). Set 
  * 'useShared' to false to get different random behaviour every time.
+ *
+ * Besides the shared generator, the randomizer provides independent random streams whose
+ * seeds are derived from the seed of the simulation and a (step, key) pair, where the key
+ * identifies the user of the stream within the step (e.g. a part of the field or an actor).
+ * The seed of a simulation is taken from the generator bound to the thread that creates it,
+ * if there is one (see getSeed), so simulations run with different bound generators also
+ * get different streams.
+ * When a simulation step runs on several threads, each thread binds its own stream, which
+ * is then returned by getRandom on that thread. Threads therefore never share generator
+ * state, and the results do not depend on the number of threads.
  * 
  * @author David J. Barnes and Michael Kölling
  * @version 2018.02 (2)
@@ -13,9 +23,11 @@ public class Randomizer
     // The default seed for control of randomization.
     private static final int SEED = 2111;
     // A shared Random object, if required.
-    private static final Random rand = new Random(SEED);
+    private static final RandomStream rand = new RandomStream(SEED);
     // Determine whether a shared random generator is to be provided.
     private static final boolean useShared = true;
+    // Random generators bound to the current thread, if any.
+    private static final ThreadLocal<Random> bound = new ThreadLocal<>();
 
     /**
      * Constructor for objects of class Randomizer
@@ -30,6 +42,10 @@ public class Randomizer
      */
     public static Random getRandom()
     {
+        Random random = bound.get();
+        if(random != null) {
+            return random;
+        }
         if(useShared) {
             return rand;
         }
@@ -38,6 +54,82 @@ public class Randomizer
         }
     }
     
+    /**
+     * Provide the seed of a new simulation. If a generator is bound to the current thread,
+     * the seed is taken from it: a RandomStream gives its current position, which does not
+     * advance it, and any other generator gives its next number. Otherwise the fixed seed
+     * is used (or the current time, if randomization is not through the shared generator).
+     * @return The seed of the simulation.
+     */
+    public static long getSeed()
+    {
+        Random random = bound.get();
+        if(random instanceof RandomStream) {
+            return ((RandomStream) random).getState();
+        }
+        if(random != null) {
+            return random.nextLong();
+        }
+        return useShared ? SEED : System.nanoTime();
+    }
+
+    /**
+     * Derive the seed of a random stream from the seed of the simulation, the given
+     * step and the given key. The same arguments always give the same sequence of random
+     * numbers, and existing streams can be reseeded with it without creating new objects.
+     * @param seed The seed of the simulation (see getSeed).
+     * @param step The step of the simulation.
+     * @param key A key identifying the user of the stream within the step.
+     * @return The seed of the stream.
+     */
+    public static long deriveSeed(long seed, long step, long key)
+    {
+        seed = RandomStream.mix(seed + step);
+        return RandomStream.mix(seed + key);
+    }
+
+    /**
+     * Make getRandom return the given generator on the current thread.
+     * @param random The generator to be used by the current thread, or null to
+     *               use the shared one again.
+     */
+    public static void bind(Random random)
+    {
+        if(random == null) {
+            bound.remove();
+        }
+        else {
+            bound.set(random);
+        }
+    }
+
+    /**
+     * @return The generator bound to the current thread, or null if the thread
+     *         uses the shared one.
+     */
+    public static Random getBound()
+    {
+        return bound.get();
+    }
+
+    /**
+     * @return The position of the shared random generator, which can be used to continue
+     *         its sequence later with setState.
+     */
+    public static long getState()
+    {
+        return rand.getState();
+    }
+
+    /**
+     * Continue the sequence of the shared random generator from a position returned by getState.
+     * @param state The position of the shared generator.
+     */
+    public static void setState(long state)
+    {
+        rand.setState(state);
+    }
+
     /**
      * Reset the randomization.
      * This will have no effect if randomization is not through
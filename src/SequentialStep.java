@@ -0,0 +1,41 @@
+import java.util.List;
+
+/**
+ * The default step strategy. All actors act one after another, in the order
+ * of the list of actors, on the thread running the simulation.
+ *
+ * Dead actors are removed and newborns added in a single pass over the list: newborns
+ * are appended straight to the end of the list while the actors act, and the active
+ * actors and then the newborns are moved down over the inactive ones. The order of the
+ * actors is kept, and nothing is copied or allocated besides the growth of the list.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+public class SequentialStep implements StepStrategy {
+
+    /**
+     * @see StepStrategy
+     */
+    @Override
+    public void step(List<Actor> actors, Field field, int step) {
+        // The actors added after this position are newborns, which first act in the next step.
+        int size = actors.size();
+        // Position of the next active actor.
+        int kept = 0;
+        for(int i = 0; i < size; i++) {
+            Actor actor = actors.get(i);
+            actor.act(actors);
+            if(actor.isActive()) {
+                actors.set(kept++, actor);
+            }
+        }
+
+        // Move the newborns after the active actors.
+        int total = actors.size();
+        for(int i = size; i < total; i++) {
+            actors.set(kept++, actors.get(i));
+        }
+        actors.subList(kept, total).clear();
+    }
+}
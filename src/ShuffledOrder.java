@@ -0,0 +1,22 @@
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A scheduler that shuffles all the actors placed in the field before every step,
+ * so every order is equally likely. This is the fairest scheduler, but it needs a random number for
+ * every actor and swaps actors all over the list, which is slow for large lists.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+public class ShuffledOrder implements Scheduler {
+
+    /**
+     * @see Scheduler
+     */
+    @Override
+    public boolean schedule(List<Actor> actors, Field field, int step) {
+        Collections.shuffle(actors.subList(Scheduler.countUnplaced(actors), actors.size()), Randomizer.getRandom());
+        return true;
+    }
+}
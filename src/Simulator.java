@@ -1,12 +1,14 @@
-import java.util.Random;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Iterator;
-import java.awt.Color;
 
 /**
  * A simple predator-prey simulator, based on a rectangular field
  * containing rabbits and foxes.
+ * The simulator itself does not use any graphical classes. The progress of the
+ * simulation is reported to the registered observers (e.g. a SimulatorView), so
+ * the simulation can also run headless.
  *
  * @author David J. Barnes and Michael Kölling
  * @version 2018.02 (2)
@@ -18,30 +20,49 @@ public class Simulator
     private static final int DEFAULT_WIDTH = 120;
     // The default depth of the grid.
     private static final int DEFAULT_DEPTH = 80;
-    // The probability that a fox will be created in any given grid position.
-    private static final double FOX_CREATION_PROBABILITY = 0.07; //default 0.02
-    // The probability that a rabbit will be created in any given grid position.
-    private static final double RABBIT_CREATION_PROBABILITY = 0.8; //prev = 0.4
-
-    private static final double LION_CREATION_PROBABILITY = 0.05; // prev = 0.01
-
-    private static final double DEER_CREATION_PROBABILITY = 0.07;
-
-    private static final double BEAR_CREATION_PROBABILITY = 0.07;
-
-    private static final double PLANT_CREATION_PROBABILITY = 0.80;
+    // The default probability that an animal or a plant of each species will be created in any
+    // given grid position, indexed by the species' ordinal. Animals are tried in the order
+    // fox, rabbit, deer, lion, bear.
+    private static final double[] DEFAULT_CREATION_PROBABILITIES = {
+        0.8,    // rabbit, prev = 0.4
+        0.07,   // fox, default 0.02
+        0.05,   // lion, prev = 0.01
+        0.07,   // deer
+        0.07,   // bear
+        0.80    // plant
+    };
     // List of animals in the field.
     private List<Actor> actors;
     // The current state of the field.
     private Field field;
     // The current step of the simulation.
     private int step;
-    // A graphical view of the simulation.
-    private SimulatorView view;
+    // Observers notified after each reset and step (e.g. a graphical view).
+    private List<SimulatorObserver> observers;
+    // Statistics used to determine whether the simulation is still viable.
+    private FieldStats stats;
 
     private Environment environment;
 
     private Weather weather;
+    // How the actors act during each step.
+    private StepStrategy stepStrategy;
+    // The order in which the actors act.
+    private Scheduler scheduler;
+    // The seed from which the random streams of the steps are derived (see Randomizer.getSeed).
+    private long seed;
+    // Wall time taken by the last step, in nanoseconds.
+    private long lastStepNanos;
+    // Simulates the animals kept in an entity store, null if every animal is an object.
+    private AnimalSystem animalSystem;
+    // Whether the animals of the entity store are event-driven.
+    private boolean eventDriven;
+    // Simulates the plants kept as arrays, null if every plant is an object.
+    private PlantLayer plantLayer;
+    // The probability that each species is created in any given grid position, indexed by its ordinal.
+    private double[] creationProbabilities;
+    // Fills the field with animals and plants.
+    private Populator populator;
 
     /**
      * Construct a simulation field with default size.
@@ -52,11 +73,23 @@ public class Simulator
     }
 
     /**
-     * Create a simulation field with the given size.
+     * Create a simulation field with the given size and a graphical view of it.
      * @param depth Depth of the field. Must be greater than zero.
      * @param width Width of the field. Must be greater than zero.
      */
     public Simulator(int depth, int width)
+    {
+        this(depth, width, false);
+    }
+
+    /**
+     * Create a simulation field with the given size.
+     * @param depth Depth of the field. Must be greater than zero.
+     * @param width Width of the field. Must be greater than zero.
+     * @param headless If true no graphical view is created, otherwise the
+     *                 simulation is displayed in a SimulatorView.
+     */
+    public Simulator(int depth, int width, boolean headless)
     {
         if(width <= 0 || depth <= 0) {
             System.out.println("The dimensions must be greater than zero.");
@@ -70,20 +103,130 @@ public class Simulator
         field = new Field(depth, width);
         weather = new Weather();
         environment = new Environment(weather);
+        stats = new FieldStats();
+        observers = new ArrayList<>();
+        seed = Randomizer.getSeed();
+        stepStrategy = new SequentialStep();
+        scheduler = new InsertionOrder();
+        creationProbabilities = DEFAULT_CREATION_PROBABILITIES.clone();
+        populator = new Populator(field, environment);
 
-        // Create a view of the state of each location in the field.
-        view = new SimulatorView(depth, width);
-        view.setColor(Rabbit.class, Color.ORANGE);
-        view.setColor(Fox.class, Color.BLUE);
-        view.setColor(Lion.class, Color.RED);
-        view.setColor(Deer.class, Color.MAGENTA);
-        view.setColor(Bear.class, new Color(139,0,0));
-        view.setColor(Plant.class, Color.GREEN);
+        if(!headless) {
+            // Create a view of the state of each location in the field.
+            addObserver(SimulatorView.createDefaultView(depth, width));
+        }
 
         // Setup a valid starting point.
         reset();
     }
 
+    /**
+     * Change how the actors act during each step, e.g. to run them on several threads.
+     * @param stepStrategy The strategy to be used from the next step onwards.
+     */
+    public void setStepStrategy(StepStrategy stepStrategy)
+    {
+        this.stepStrategy = stepStrategy;
+        stepStrategy.setSeed(seed);
+        stepStrategy.actorsChanged(actors);
+    }
+
+    /**
+     * Change the order in which the actors act, e.g. to shuffle them before every step.
+     * @param scheduler The scheduler to be used from the next step onwards.
+     * @see Scheduler
+     */
+    public void setScheduler(Scheduler scheduler)
+    {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Choose how the animals are stored. By default every animal is an object. With the
+     * entity store the state of all animals is kept in primitive arrays and simulated by
+     * an AnimalSystem, which needs much less memory for large fields.
+     * The simulation is reset.
+     * @param enabled True to use the entity store, false to use objects.
+     */
+    public void setEntityStore(boolean enabled)
+    {
+        animalSystem = enabled ? new AnimalSystem(field, environment) : null;
+        if(animalSystem != null) {
+            animalSystem.setSeed(seed);
+            animalSystem.setEventDriven(eventDriven);
+        }
+        reset();
+    }
+
+    /**
+     * Choose whether the animals of the entity store are event-driven: their deaths are
+     * scheduled in advance instead of counting down their age and hunger every step
+     * (see AnimalSystem). The results are different, and the animals can no longer act
+     * bulk-synchronously. It takes effect when the entity store is used.
+     * The simulation is reset.
+     * @param enabled True for event-driven animals, false to update them every step.
+     */
+    public void setEventDriven(boolean enabled)
+    {
+        eventDriven = enabled;
+        if(animalSystem != null) {
+            animalSystem.setEventDriven(enabled);
+        }
+        reset();
+    }
+
+    /**
+     * Choose how the plants are stored. By default every plant is an object. With the
+     * plant layer the age and food value of all plants are kept in arrays with an entry
+     * for every cell, and all plants are updated together by a PlantLayer.
+     * The simulation is reset.
+     * @param enabled True to use the plant layer, false to use objects.
+     */
+    public void setPlantLayer(boolean enabled)
+    {
+        plantLayer = enabled ? new PlantLayer(field, environment) : null;
+        field.setPlantLayer(plantLayer);
+        reset();
+    }
+
+    /**
+     * Change the probability that a species is created in any given grid position when
+     * the field is populated. It takes effect at the next reset.
+     * @param species The species.
+     * @param probability The probability, between 0 and 1.
+     */
+    public void setCreationProbability(Species species, double probability)
+    {
+        if(probability < 0 || probability > 1) {
+            System.out.println("Invalid creation probability for " + species.getName() + ": " + probability + " (must be between 0 and 1).");
+            System.out.println("Using current value (" + creationProbabilities[species.ordinal()] + ").");
+            return;
+        }
+        creationProbabilities[species.ordinal()] = probability;
+    }
+
+    /**
+     * Register an observer that will be notified after each reset and step.
+     * The observer is immediately notified about the current state.
+     * @param observer The observer to be added.
+     */
+    public void addObserver(SimulatorObserver observer)
+    {
+        observers.add(observer);
+        if(actors.size() > 0) {
+            observer.simulationReset(this);
+        }
+    }
+
+    /**
+     * Remove a previously registered observer.
+     * @param observer The observer to be removed.
+     */
+    public void removeObserver(SimulatorObserver observer)
+    {
+        observers.remove(observer);
+    }
+
     /**
      * Run the simulation from its current state for a reasonably long period,
      * (4000 steps).
@@ -100,7 +243,7 @@ public class Simulator
      */
     public void simulate(int numSteps)
     {
-        for(int step = 1; step <= numSteps && view.isViable(field); step++) {
+        for(int step = 1; step <= numSteps && isViable(); step++) {
             simulateOneStep();
             //delay(200);   // uncomment this to run more slowly
         }
@@ -109,28 +252,24 @@ public class Simulator
     /**
      * Run the simulation from its current state for a single step.
      * Iterate over the whole field updating the state of each
-     * actor in the field.
+     * actor in the field, in the order given by the scheduler and
+     * as defined by the step strategy.
      */
     public void simulateOneStep()
     {
+        long start = System.nanoTime();
         step++;
         environment.incrementHourOfDay();
-        view.setInfoText("Time: " + environment.getTimeString() + " Weather is: " + environment.getWeather().getWeatherString());
-        // Provide space for newborn animals.
-        List<Actor> newActors = new ArrayList<>();
-        // Let all rabbits act.
-        for(Iterator<Actor> it = actors.iterator(); it.hasNext(); ) {
-            Actor actor = it.next();
-            actor.act(newActors);
-            if(! actor.isActive()) {
-                it.remove();
-            }
+        if(scheduler.schedule(actors, field, step)) {
+            stepStrategy.actorsChanged(actors);
         }
+        stepStrategy.step(actors, field, step);
+        lastStepNanos = System.nanoTime() - start;
 
-        // Add the newly born foxes and rabbits to the main lists.
-        actors.addAll(newActors);
-
-        view.showStatus(step, field);
+        for(SimulatorObserver observer : observers) {
+            observer.stepCompleted(this);
+        }
+        field.clearChanges();
     }
 
     /**
@@ -139,57 +278,105 @@ public class Simulator
     public void reset()
     {
         step = 0;
+        lastStepNanos = 0;
         actors.clear();
         actors.add(weather);
+        if(plantLayer != null) {
+            plantLayer.clear();
+            actors.add(plantLayer);
+        }
+        if(animalSystem != null) {
+            animalSystem.clear();
+            actors.add(animalSystem);
+        }
         populate();
+        stepStrategy.actorsChanged(actors);
 
-        // Show the starting state in the view.
-        view.showStatus(step, field);
+        // Show the starting state to the observers.
+        for(SimulatorObserver observer : observers) {
+            observer.simulationReset(this);
+        }
+        field.clearChanges();
+    }
+
+    /**
+     * Save the full state of the simulation to a file, so it can be continued later.
+     * @param file The file to write to.
+     * @throws IOException If the file cannot be written.
+     * @see Snapshot
+     */
+    public void save(Path file) throws IOException
+    {
+        Snapshot.write(file, step, field, environment, actors);
+    }
+
+    /**
+     * Continue the simulation from a state saved by save. The saved simulation
+     * must have a field of the same size.
+     * @param file The file to read from.
+     * @throws IOException If the file cannot be read or is not a valid snapshot.
+     * @see Snapshot
+     */
+    public void restore(Path file) throws IOException
+    {
+        step = Snapshot.read(file, field, environment, actors);
+        lastStepNanos = 0;
+        stepStrategy.actorsChanged(actors);
+        for(SimulatorObserver observer : observers) {
+            observer.simulationReset(this);
+        }
+        field.clearChanges();
+    }
+
+    /**
+     * Determine whether the simulation should continue to run.
+     * @return true If there is more than one species alive.
+     */
+    public boolean isViable()
+    {
+        return stats.isViable(field);
+    }
+
+    /**
+     * @return The current step of the simulation.
+     */
+    public int getStep()
+    {
+        return step;
+    }
+
+    /**
+     * @return The wall time taken by the last step, in nanoseconds.
+     */
+    public long getLastStepNanos()
+    {
+        return lastStepNanos;
+    }
+
+    /**
+     * @return The field of the simulation.
+     */
+    public Field getField()
+    {
+        return field;
+    }
+
+    /**
+     * @return The environment of the simulation.
+     */
+    public Environment getEnvironment()
+    {
+        return environment;
     }
 
     /**
      * Randomly populate the field with all animals and plants.
+     * @see Populator
      */
     private void populate()
     {
-        Random rand = Randomizer.getRandom();
         field.clear();
-        for(int row = 0; row < field.getDepth(); row++) {
-            for(int col = 0; col < field.getWidth(); col++) {
-                if (rand.nextDouble() <= PLANT_CREATION_PROBABILITY) {
-                    Location location = new Location(row, col);
-                    Plant plant = new Plant(field, location, environment);
-                    actors.add(plant);
-                }
-
-                if(rand.nextDouble() <= FOX_CREATION_PROBABILITY) {
-                    Location location = new Location(row, col);
-                    Fox fox = new Fox(true, field, location, environment);
-                    actors.add(fox);
-                }
-                else if(rand.nextDouble() <= RABBIT_CREATION_PROBABILITY) {
-                    Location location = new Location(row, col);
-                    Rabbit rabbit = new Rabbit(true, field, location, environment);
-                    actors.add(rabbit);
-                }
-                else if(rand.nextDouble() <= DEER_CREATION_PROBABILITY) {
-                    Location location = new Location(row, col);
-                    Deer deer = new Deer(true, field, location, environment);
-                    actors.add(deer);
-                }
-                else if(rand.nextDouble() <= LION_CREATION_PROBABILITY) {
-                    Location location = new Location(row, col);
-                    Lion lion = new Lion(true, field, location, environment);
-                    actors.add(lion);
-                }
-                else if(rand.nextDouble() <= BEAR_CREATION_PROBABILITY) {
-                    Location location = new Location(row, col);
-                    Bear bear = new Bear(true, field, location, environment);
-                    actors.add(bear);
-                }
-                // else leave the location empty.
-            }
-        }
+        populator.populate(creationProbabilities, actors, animalSystem, plantLayer);
     }
 
     /**
@@ -0,0 +1,25 @@
+/**
+ * This interface defines all objects that want to be notified about the progress
+ * of a simulation. The simulator itself does not depend on any graphical classes,
+ * so a graphical view is just one of the possible observers.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+public interface SimulatorObserver {
+
+    /**
+     * Called after the simulation has been reset to a new starting position.
+     *
+     * @param simulator The simulator that has been reset.
+     */
+    void simulationReset(Simulator simulator);
+
+    /**
+     * Called after every completed step of the simulation. The cells of the field
+     * changed by the step can be found with Field.nextChangedCell.
+     *
+     * @param simulator The simulator that has completed a step.
+     */
+    void stepCompleted(Simulator simulator);
+}
@@ -1,7 +1,8 @@
 import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import javax.swing.*;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 /**
  * A graphical view of the simulation grid.
@@ -9,30 +10,46 @@ import java.util.Map;
  * representing its contents. It uses a default background color.
  * Colors for each type of species can be defined using the
  * setColor method.
+ * The view observes a simulator, but never paints on the simulation's thread. After each
+ * step the simulation only records the color index of the cells that changed in a frame
+ * shared with the view, which is quick and never waits for painting. A number of times per
+ * second (the target frame rate) the Swing event thread takes the latest frame and draws the
+ * changed cells straight into the pixels of the image of the field. Steps made between two
+ * frames are merged into one, so a simulation faster than the display simply skips frames.
  *
  * @author David J. Barnes and Michael Kölling (minor modifications by Jacopo Madaluni and Luka Kralj)
  * @version February 2018
  */
-public class SimulatorView extends JFrame {
-    // For now we can have at most 2 actors in one cell, namely one plant and one animal.
-    // In later extensions we could ass a birds species that could fly over animals and plants,
-    // thus allowing for three actors in one place.
-    private static final int MAX_ACTORS_ON_ONE_CELL = 2;
-
+public class SimulatorView extends JFrame implements SimulatorObserver {
     // Colors used for empty locations.
     private static final Color EMPTY_COLOR = Color.white;
 
     // Color used for objects that have no defined color.
     private static final Color UNKNOWN_COLOR = Color.gray;
 
+    // Number of frames shown per second by default.
+    private static final int DEFAULT_FPS = 30;
+
     private final String STEP_PREFIX = "Step: ";
     private final String POPULATION_PREFIX = "Population: ";
     private JLabel stepLabel, population, infoLabel;
     private FieldView fieldView;
-    // A map for storing colors for participants in the simulation
-    private Map<Class, Color> colors;
+    // The RGB color of each color index: 0 for empty cells, then the color and the
+    // darker color of sick animals of each species (see colorIndex).
+    private int[] palette;
     // A statistics object computing and storing simulation information
     private FieldStats stats;
+    // The width of the field.
+    private int gridWidth;
+
+    // The frame being filled by the simulation and the frame being shown. They are
+    // swapped by the event thread while holding the lock of frameLock.
+    private Frame pending, shown;
+    private final Object frameLock = new Object();
+    // The color index of each cell as last drawn by the event thread.
+    private byte[] drawnColors;
+    // Shows the latest frame at the target frame rate.
+    private Timer frameTimer;
 
     /**
      * Create a view of the given width and height.
@@ -42,7 +59,13 @@ public class SimulatorView extends JFrame {
      */
     public SimulatorView(int height, int width) {
         stats = new FieldStats();
-        colors = new LinkedHashMap<>();
+        gridWidth = width;
+        palette = new int[1 + 2 * Species.values().length];
+        Arrays.fill(palette, UNKNOWN_COLOR.getRGB());
+        palette[0] = EMPTY_COLOR.getRGB();
+        pending = new Frame(height * width);
+        shown = new Frame(height * width);
+        drawnColors = new byte[height * width];
 
         setTitle("Predator & Prey Simulation");
         stepLabel = new JLabel(STEP_PREFIX, JLabel.CENTER);
@@ -63,16 +86,63 @@ public class SimulatorView extends JFrame {
         contents.add(population, BorderLayout.SOUTH);
         pack();
         setVisible(true);
+
+        frameTimer = new Timer(1000 / DEFAULT_FPS, e -> showFrame());
+        frameTimer.start();
     }
 
     /**
-     * Define a color to be used for a given class of animal.
+     * Create a view of the given width and height, using the default
+     * colors for all the species in the simulation.
      *
-     * @param drawableClass The animal's Class object.
-     * @param color The color to be used for the given class.
+     * @param height The simulation's height.
+     * @param width  The simulation's width.
+     * @return The new view.
      */
-    public void setColor(Class drawableClass, Color color) {
-        colors.put(drawableClass, color);
+    public static SimulatorView createDefaultView(int height, int width) {
+        SimulatorView view = new SimulatorView(height, width);
+        view.setColor(Species.RABBIT, Color.ORANGE);
+        view.setColor(Species.FOX, Color.BLUE);
+        view.setColor(Species.LION, Color.RED);
+        view.setColor(Species.DEER, Color.MAGENTA);
+        view.setColor(Species.BEAR, new Color(139,0,0));
+        view.setColor(Species.PLANT, Color.GREEN);
+        return view;
+    }
+
+    /**
+     * Define a color to be used for a given species. Sick animals of the
+     * species are drawn in a darker color.
+     *
+     * @param species The species.
+     * @param color The color to be used for the given species.
+     */
+    public void setColor(Species species, Color color) {
+        palette[1 + 2 * species.ordinal()] = color.getRGB();
+        palette[2 + 2 * species.ordinal()] = color.darker().getRGB();
+    }
+
+    /**
+     * Set how many times per second the view shows the latest state of the simulation.
+     *
+     * @param fps The target frame rate. Must be greater than zero.
+     */
+    public void setTargetFps(int fps) {
+        if (fps <= 0) {
+            System.out.println("Invalid frame rate: " + fps + " (must be greater than zero).");
+            System.out.println("Using default value (" + DEFAULT_FPS + ").");
+            fps = DEFAULT_FPS;
+        }
+        frameTimer.setDelay(Math.max(1, 1000 / fps));
+    }
+
+    /**
+     * Stop showing frames and release the window's resources.
+     */
+    @Override
+    public void dispose() {
+        frameTimer.stop();
+        super.dispose();
     }
 
     /**
@@ -83,63 +153,120 @@ public class SimulatorView extends JFrame {
     }
 
     /**
-     * Returns the color for a given drawable class.
-     * If an animal has a disease, the color is made darker.
+     * Returns the color index for the contents of a cell.
+     * If an animal has a disease, the darker color of its species is used.
      *
-     * @return The color to be used for a given class of animal.
+     * @param field The field of the simulation.
+     * @param cell The index of the cell (row * width + column).
+     * @return The index of the color in the palette.
      */
-    private Color getColor(Object actor) {
-        Color col = colors.get(actor.getClass());
-        if(col == null) {
-            // no color defined for this class
-            return UNKNOWN_COLOR;
+    private static byte colorIndex(Field field, int cell) {
+        int row = cell / field.getWidth();
+        int col = cell % field.getWidth();
+        Species species = Species.of(field.getObjectAt(row, col));
+        if(species == null) {
+            return 0;
         }
-        else if (actor instanceof Animal) {
-            Animal animal = (Animal) actor;
-            if (animal.hasDisease()) {
-                return col.darker();
-            }
+        else if (field.isSick(row, col)) {
+            return (byte) (2 + 2 * species.ordinal());
         }
-        return col;
+        return (byte) (1 + 2 * species.ordinal());
     }
 
     /**
-     * Show the current status of the field.
+     * Record the state of the simulation in the pending frame. This runs on the
+     * simulation's thread, and at most waits for the event thread to swap the frames.
      *
-     * @param step Which iteration step it is.
-     * @param field The field whose status is to be displayed.
+     * @param simulator The simulator to record.
+     * @param allCells If true all cells are recorded, otherwise only the cells
+     *                 changed during the last step.
      */
-    public void showStatus(int step, Field field) {
-        if(!isVisible()) {
-            setVisible(true);
+    private void publish(Simulator simulator, boolean allCells) {
+        Field field = simulator.getField();
+        Environment environment = simulator.getEnvironment();
+        String info = "Time: " + environment.getTimeString() + " Weather is: " + environment.getWeather().getWeatherString();
+        String details = stats.getPopulationDetails(field);
+        synchronized (frameLock) {
+            Frame frame = pending;
+            if(allCells) {
+                for(int cell = 0; cell < frame.colors.length; cell++) {
+                    frame.colors[cell] = colorIndex(field, cell);
+                }
+                frame.allCells = true;
+            }
+            else {
+                for(int cell = field.nextChangedCell(0); cell >= 0; cell = field.nextChangedCell(cell + 1)) {
+                    frame.colors[cell] = colorIndex(field, cell);
+                    frame.changed.set(cell);
+                }
+            }
+            frame.step = simulator.getStep();
+            frame.info = info;
+            frame.population = details;
+            frame.ready = true;
         }
+    }
 
-        stepLabel.setText(STEP_PREFIX + step);
-        stats.reset();
-
-        fieldView.preparePaint();
+    /**
+     * Show the latest frame recorded by the simulation, if there is a new one.
+     * This runs on the event thread.
+     */
+    private void showFrame() {
+        Frame frame = null;
+        synchronized (frameLock) {
+            if(pending.ready) {
+                frame = pending;
+                pending = shown;
+                shown = frame;
+            }
+        }
 
-        for(int row = 0; row < field.getDepth(); row++) {
-            for(int col = 0; col < field.getWidth(); col++) {
-                Object actor = field.getObjectAt(row, col);
-                if(actor instanceof Drawable) {
-                    if (field.getField()[row][col].size() == MAX_ACTORS_ON_ONE_CELL){
-                        // getObjectAt only "sees" the top element but if there is an animal and a plant
-                        // at the certain location we need to count those plants too.
-                        stats.incrementCount(Plant.class);
+        // A new image (e.g. after a resize) must be drawn completely.
+        boolean redraw = fieldView.preparePaint();
+        if(frame != null) {
+            if(frame.allCells) {
+                System.arraycopy(frame.colors, 0, drawnColors, 0, drawnColors.length);
+                redraw = true;
+            }
+            else {
+                for(int cell = frame.changed.next(0); cell >= 0; cell = frame.changed.next(cell + 1)) {
+                    drawnColors[cell] = frame.colors[cell];
+                    if(!redraw) {
+                        fieldView.drawMark(cell % gridWidth, cell / gridWidth, palette[drawnColors[cell]]);
                     }
-                    stats.incrementCount(actor.getClass());
-                    fieldView.drawMark(col, row, getColor(actor));
-                }
-                else {
-                    fieldView.drawMark(col, row, EMPTY_COLOR);
                 }
             }
+            stepLabel.setText(STEP_PREFIX + frame.step);
+            setInfoText(frame.info);
+            population.setText(POPULATION_PREFIX + frame.population);
+            frame.clear();
         }
-        stats.countFinished();
+        if(redraw) {
+            for(int cell = 0; cell < drawnColors.length; cell++) {
+                fieldView.drawMark(cell % gridWidth, cell / gridWidth, palette[drawnColors[cell]]);
+            }
+        }
+        fieldView.repaintMarks();
+    }
 
-        population.setText(POPULATION_PREFIX + stats.getPopulationDetails(field));
-        fieldView.repaint();
+    /**
+     * Show the starting state of the simulation.
+     *
+     * @see SimulatorObserver
+     */
+    @Override
+    public void simulationReset(Simulator simulator) {
+        publish(simulator, true);
+    }
+
+    /**
+     * Show the state of the simulation after a step.
+     *
+     * @see SimulatorObserver
+     */
+    @Override
+    public void stepCompleted(Simulator simulator) {
+        publish(simulator, false);
     }
 
     /**
@@ -151,6 +278,46 @@ public class SimulatorView extends JFrame {
         return stats.isViable(field);
     }
 
+    /**
+     * The state of the simulation handed from the simulation's thread to the event
+     * thread: the color index of the cells that changed since the frame was last
+     * shown, and the texts of the labels.
+     */
+    private static class Frame {
+        // The color index of each cell. Only the changed cells are up to date,
+        // or all of them if allCells is set.
+        private final byte[] colors;
+        // The cells that changed.
+        private final OccupancyMap changed;
+        // Whether all cells were recorded.
+        private boolean allCells;
+        // Whether anything was recorded since the frame was last shown.
+        private boolean ready;
+        // The texts of the labels.
+        private int step;
+        private String info;
+        private String population;
+
+        /**
+         * Create an empty frame.
+         *
+         * @param cells The number of cells of the field.
+         */
+        private Frame(int cells) {
+            colors = new byte[cells];
+            changed = new OccupancyMap(cells);
+        }
+
+        /**
+         * Forget what was recorded, once the frame has been shown.
+         */
+        private void clear() {
+            changed.clear();
+            allCells = false;
+            ready = false;
+        }
+    }
+
     /**
      * Provide a graphical view of a rectangular field. This is 
      * a nested class (a class defined inside a class) which
@@ -165,8 +332,11 @@ public class SimulatorView extends JFrame {
         private int gridWidth, gridHeight;
         private int xScale, yScale;
         Dimension size;
-        private Graphics g;
-        private Image fieldImage;
+        // The image of the field and the pixels backing it, row by row.
+        private BufferedImage fieldImage;
+        private int[] pixels;
+        // Bounds of the grid locations drawn since the last repaint.
+        private int minX, minY, maxX, maxY;
 
         /**
          * Create a new FieldView component.
@@ -175,6 +345,10 @@ public class SimulatorView extends JFrame {
             gridHeight = height;
             gridWidth = width;
             size = new Dimension(0, 0);
+            minX = Integer.MAX_VALUE;
+            minY = Integer.MAX_VALUE;
+            maxX = -1;
+            maxY = -1;
         }
 
         /**
@@ -188,12 +362,12 @@ public class SimulatorView extends JFrame {
         /**
          * Prepare for a new round of painting. Since the component
          * may be resized, compute the scaling factor again.
+         *
+         * @return True if a new image was created, which needs to be drawn completely.
          */
-        public void preparePaint() {
-            if(! size.equals(getSize())) {  // if the size has changed...
+        public boolean preparePaint() {
+            if(fieldImage == null || ! size.equals(getSize())) {  // if the size has changed...
                 size = getSize();
-                fieldImage = fieldView.createImage(size.width, size.height);
-                g = fieldImage.getGraphics();
 
                 xScale = size.width / gridWidth;
                 if(xScale < 1) {
@@ -203,15 +377,51 @@ public class SimulatorView extends JFrame {
                 if(yScale < 1) {
                     yScale = GRID_VIEW_SCALING_FACTOR;
                 }
+                // The image holds the whole grid, even if the component is smaller.
+                fieldImage = new BufferedImage(Math.max(size.width, gridWidth * xScale),
+                        Math.max(size.height, gridHeight * yScale), BufferedImage.TYPE_INT_RGB);
+                pixels = ((DataBufferInt) fieldImage.getRaster().getDataBuffer()).getData();
+                Arrays.fill(pixels, getBackground().getRGB());
+                return true;
             }
+            return false;
         }
 
         /**
          * Paint on grid location on this field in a given color.
+         * The pixels are written directly; call repaintMarks to show them.
          */
-        public void drawMark(int x, int y, Color color) {
-            g.setColor(color);
-            g.fillRect(x * xScale, y * yScale, xScale-1, yScale-1);
+        public void drawMark(int x, int y, int rgb) {
+            int imageWidth = fieldImage.getWidth();
+            int left = x * xScale;
+            for(int row = y * yScale, end = row + yScale - 1; row < end; row++) {
+                int start = row * imageWidth + left;
+                Arrays.fill(pixels, start, start + xScale - 1, rgb);
+            }
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+        }
+
+        /**
+         * Repaint the part of the component holding the grid locations
+         * drawn since the last repaint.
+         */
+        public void repaintMarks() {
+            if(minX > maxX) {
+                return;
+            }
+            if(size.equals(getSize())) {
+                repaint(minX * xScale, minY * yScale, (maxX - minX + 1) * xScale, (maxY - minY + 1) * yScale);
+            }
+            else {
+                repaint();
+            }
+            minX = Integer.MAX_VALUE;
+            minY = Integer.MAX_VALUE;
+            maxX = -1;
+            maxY = -1;
         }
 
         /**
@@ -231,4 +441,4 @@ public class SimulatorView extends JFrame {
             }
         }
     }
-}
\ No newline at end of file
+}
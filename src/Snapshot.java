@@ -0,0 +1,334 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Writes and reads the full state of a simulation in a compact binary format, so that
+ * long simulations can be continued later and many experiments can start from the same state.
+ *
+ * The file starts with a header (big endian): the magic number, the version, the depth and
+ * width of the field, the step, the hour of the day, the weather, the position of the shared
+ * random generator and the number n of actors in the field. The actors follow as a structure
+ * of arrays, in the order in which they act: n species (byte), n cells (int, row * width + col),
+ * n ages (int), n food levels or values (int), n breed counters (int), n genders (byte) and
+ * n disease aging factors (int, 0 if healthy). Plants only use the species, cell, age and food
+ * columns. Columns are read back through memory mapping, so large states load quickly.
+ * Animals kept in an AnimalStore are written at the position of their AnimalSystem and are
+ * read back into the AnimalSystem of the restored simulation, if it has one. In the same way,
+ * plants kept in a PlantLayer are written at its position and read back into the PlantLayer
+ * of the restored simulation, if it has one.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+public class Snapshot {
+    // Identifies snapshot files ("NPSS").
+    private static final int MAGIC = 0x4E505353;
+    // Version of the file format.
+    private static final int VERSION = 1;
+    // Size of the header in bytes.
+    private static final int HEADER_SIZE = 8 * Integer.BYTES + Long.BYTES;
+    // Size of the buffer used to write the columns.
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    /**
+     * Write the state of a simulation to a file.
+     *
+     * @param file The file to write to. An existing file is overwritten.
+     * @param step The current step of the simulation.
+     * @param field The field of the simulation.
+     * @param environment The environment of the simulation.
+     * @param actors All actors of the simulation.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(Path file, int step, Field field, Environment environment, List<Actor> actors)
+            throws IOException {
+        int n = 0;
+        for (Actor actor : actors) {
+            if (actor instanceof AnimalSystem) {
+                AnimalStore store = ((AnimalSystem) actor).getStore();
+                for (int j = 0; j < store.size(); j++) {
+                    if (store.isAlive(store.getId(j))) {
+                        n++;
+                    }
+                }
+            }
+            else if (actor instanceof PlantLayer) {
+                for (int cell = field.nextPlantCell(0); cell >= 0; cell = field.nextPlantCell(cell + 1)) {
+                    n++;
+                }
+            }
+            else if (actor.isActive() && Species.of(actor) != null) {
+                n++;
+            }
+        }
+        byte[] species = new byte[n];
+        int[] cells = new int[n];
+        int[] ages = new int[n];
+        int[] food = new int[n];
+        int[] breedCounters = new int[n];
+        byte[] genders = new byte[n];
+        int[] diseases = new int[n];
+
+        int i = 0;
+        for (Actor actor : actors) {
+            if (actor instanceof AnimalSystem) {
+                AnimalStore store = ((AnimalSystem) actor).getStore();
+                for (int j = 0; j < store.size(); j++) {
+                    int id = store.getId(j);
+                    if (store.isAlive(id)) {
+                        species[i] = (byte) store.getSpecies(id).ordinal();
+                        cells[i] = store.getCell(id);
+                        ages[i] = store.getAge(id);
+                        food[i] = store.getFoodLevel(id);
+                        breedCounters[i] = store.getBreedCounter(id);
+                        genders[i] = (byte) store.getGender(id);
+                        diseases[i] = store.getDisease(id);
+                        i++;
+                    }
+                }
+                continue;
+            }
+            if (actor instanceof PlantLayer) {
+                PlantLayer plantLayer = (PlantLayer) actor;
+                for (int cell = field.nextPlantCell(0); cell >= 0; cell = field.nextPlantCell(cell + 1)) {
+                    species[i] = (byte) Species.PLANT.ordinal();
+                    cells[i] = cell;
+                    ages[i] = plantLayer.getAge(cell);
+                    food[i] = plantLayer.getFoodValue(cell);
+                    i++;
+                }
+                continue;
+            }
+            if (!actor.isActive() || Species.of(actor) == null) {
+                continue;
+            }
+            species[i] = (byte) Species.of(actor).ordinal();
+            if (actor instanceof Animal) {
+                Animal animal = (Animal) actor;
+                cells[i] = cell(field, animal.getLocation());
+                ages[i] = animal.getAge();
+                food[i] = animal.getFoodLevel();
+                breedCounters[i] = animal.getBreedCounter();
+                genders[i] = (byte) animal.getGender();
+                diseases[i] = animal.hasDisease() ? animal.getDisease().getAgingFactor() : 0;
+            }
+            else {
+                Plant plant = (Plant) actor;
+                cells[i] = cell(field, plant.getLocation());
+                ages[i] = plant.getAge();
+                food[i] = plant.getFoodValue();
+            }
+            i++;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION)
+                    .putInt(field.getDepth()).putInt(field.getWidth())
+                    .putInt(step).putInt(environment.getHourOfDay())
+                    .putInt(environment.getWeather().getState())
+                    .putLong(Randomizer.getState())
+                    .putInt(n);
+            header.flip();
+            writeFully(channel, header);
+
+            ByteBuffer chunk = ByteBuffer.allocateDirect(CHUNK_SIZE);
+            writeColumn(channel, chunk, species);
+            writeColumn(channel, chunk, cells);
+            writeColumn(channel, chunk, ages);
+            writeColumn(channel, chunk, food);
+            writeColumn(channel, chunk, breedCounters);
+            writeColumn(channel, chunk, genders);
+            writeColumn(channel, chunk, diseases);
+        }
+    }
+
+    /**
+     * Read the state of a simulation from a file. The field is cleared and filled with the
+     * actors of the snapshot, which are added to the list of actors after the actors without
+     * a location (e.g. the weather). If the list holds an AnimalSystem, the animals are added
+     * to it instead. The environment and the shared random generator are set to their saved state.
+     *
+     * @param file The file to read from.
+     * @param field The field of the simulation. Must have the same size as the saved one.
+     * @param environment The environment of the simulation.
+     * @param actors The list of actors of the simulation.
+     * @return The step of the saved simulation.
+     * @throws IOException If the file cannot be read or is not a valid snapshot.
+     */
+    public static int read(Path file, Field field, Environment environment, List<Actor> actors)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    throw new IOException(file + " is not a simulation snapshot.");
+                }
+            }
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException(file + " is not a simulation snapshot.");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ".");
+            }
+            int depth = header.getInt();
+            int width = header.getInt();
+            if (depth != field.getDepth() || width != field.getWidth()) {
+                throw new IOException("The snapshot is of a " + depth + "x" + width + " field, not "
+                        + field.getDepth() + "x" + field.getWidth() + ".");
+            }
+            int step = header.getInt();
+            int hourOfDay = header.getInt();
+            int weather = header.getInt();
+            long randomState = header.getLong();
+            int n = header.getInt();
+
+            long position = HEADER_SIZE;
+            byte[] species = new byte[n];
+            map(channel, position, n).get(species);
+            position += n;
+            int[] cells = readColumn(channel, position, n);
+            position += (long) n * Integer.BYTES;
+            int[] ages = readColumn(channel, position, n);
+            position += (long) n * Integer.BYTES;
+            int[] food = readColumn(channel, position, n);
+            position += (long) n * Integer.BYTES;
+            int[] breedCounters = readColumn(channel, position, n);
+            position += (long) n * Integer.BYTES;
+            byte[] genders = new byte[n];
+            map(channel, position, n).get(genders);
+            position += n;
+            int[] diseases = readColumn(channel, position, n);
+
+            field.clear();
+            actors.removeIf(actor -> Species.of(actor) != null);
+            AnimalSystem animalSystem = null;
+            PlantLayer plantLayer = null;
+            for (Actor actor : actors) {
+                if (actor instanceof AnimalSystem) {
+                    animalSystem = (AnimalSystem) actor;
+                    animalSystem.clear();
+                }
+                else if (actor instanceof PlantLayer) {
+                    plantLayer = (PlantLayer) actor;
+                    plantLayer.clear();
+                }
+            }
+            Species[] allSpecies = Species.values();
+            for (int i = 0; i < n; i++) {
+                Location location = field.getLocation(cells[i] / width, cells[i] % width);
+                Species kind = allSpecies[species[i]];
+                if (kind == Species.PLANT && plantLayer != null) {
+                    plantLayer.restore(location, ages[i], food[i]);
+                }
+                else if (kind == Species.PLANT) {
+                    Plant plant = new Plant(field, location, environment);
+                    plant.restoreState(ages[i], food[i]);
+                    actors.add(plant);
+                }
+                else if (animalSystem != null) {
+                    animalSystem.restore(kind, location, ages[i], (char) genders[i], breedCounters[i],
+                            food[i], diseases[i]);
+                }
+                else {
+                    Animal animal = createAnimal(kind, field, location, environment);
+                    Disease disease = diseases[i] > 0 ? new Disease(diseases[i]) : null;
+                    animal.restoreState(ages[i], (char) genders[i], breedCounters[i], food[i], disease);
+                    actors.add(animal);
+                }
+            }
+
+            environment.setHourOfDay(hourOfDay);
+            environment.getWeather().setState(weather);
+            // Creating the actors used random numbers, so the generator is restored last.
+            Randomizer.setState(randomState);
+            return step;
+        }
+    }
+
+    /**
+     * Create an animal of the given species.
+     */
+    private static Animal createAnimal(Species species, Field field, Location location, Environment environment) {
+        switch (species) {
+            case RABBIT: return new Rabbit(true, field, location, environment);
+            case FOX: return new Fox(true, field, location, environment);
+            case LION: return new Lion(true, field, location, environment);
+            case DEER: return new Deer(true, field, location, environment);
+            case BEAR: return new Bear(true, field, location, environment);
+            default: throw new IllegalArgumentException(species.getName() + " is not an animal.");
+        }
+    }
+
+    /**
+     * @return The index of the location in a row by row numbering of the field.
+     */
+    private static int cell(Field field, Location location) {
+        return location.getRow() * field.getWidth() + location.getCol();
+    }
+
+    /**
+     * Write a column of bytes through the given buffer.
+     */
+    private static void writeColumn(FileChannel channel, ByteBuffer chunk, byte[] column) throws IOException {
+        for (int i = 0; i < column.length; ) {
+            chunk.clear();
+            int length = Math.min(chunk.remaining(), column.length - i);
+            chunk.put(column, i, length);
+            i += length;
+            chunk.flip();
+            writeFully(channel, chunk);
+        }
+    }
+
+    /**
+     * Write a column of ints through the given buffer.
+     */
+    private static void writeColumn(FileChannel channel, ByteBuffer chunk, int[] column) throws IOException {
+        for (int i = 0; i < column.length; ) {
+            chunk.clear();
+            int length = Math.min(chunk.remaining() / Integer.BYTES, column.length - i);
+            chunk.asIntBuffer().put(column, i, length);
+            chunk.position(length * Integer.BYTES);
+            i += length;
+            chunk.flip();
+            writeFully(channel, chunk);
+        }
+    }
+
+    /**
+     * Write the whole buffer to the channel.
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Read a column of n ints starting at the given position of the file.
+     */
+    private static int[] readColumn(FileChannel channel, long position, int n) throws IOException {
+        int[] column = new int[n];
+        map(channel, position, (long) n * Integer.BYTES).asIntBuffer().get(column);
+        return column;
+    }
+
+    /**
+     * Map a part of the file into memory.
+     */
+    private static MappedByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        if (position + size > channel.size()) {
+            throw new IOException("The snapshot is truncated.");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Enumerate all species that can live in the field. The ordinal of a species can be
+ * used to index arrays holding a value for every species (e.g. population counts).
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+public enum Species {
+    RABBIT("Rabbit"),
+    FOX("Fox"),
+    LION("Lion"),
+    DEER("Deer"),
+    BEAR("Bear"),
+    PLANT("Plant");
+
+    // The name of the species as it is displayed.
+    private final String name;
+
+    /**
+     * Create a species.
+     *
+     * @param name The name of the species as it is displayed.
+     */
+    Species(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return The name of the species as it is displayed.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Whether the animals of the species sleep at the current time of an environment:
+     * foxes sleep during the day, lions outside the afternoon and the other animals at
+     * night. Plants never sleep.
+     *
+     * @param environment The environment of the animals.
+     * @return True if the animals of the species currently sleep.
+     */
+    public boolean sleeps(Environment environment) {
+        switch (this) {
+            case FOX: return environment.isDay();
+            case LION: return !environment.isAfternoon();
+            case PLANT: return false;
+            default: return environment.isNight();
+        }
+    }
+
+    /**
+     * Return the species of an object placed in the field.
+     * Animals kept in an AnimalStore are represented in the field by their species.
+     *
+     * @param object An object placed in the field.
+     * @return The species of the object, or null if the object is not an animal or a plant.
+     */
+    public static Species of(Object object) {
+        if (object instanceof Species) {
+            return (Species) object;
+        }
+        if (object instanceof Animal) {
+            return ((Animal) object).getSpecies();
+        }
+        if (object instanceof Plant) {
+            return PLANT;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,407 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * The parameters of an animal species: how long its animals live, when and how much they
+ * breed, what and how much they eat and how likely they are to get sick. Animals read these values
+ * from the profile of their species, which is looked up once when they are created.
+ *
+ * The profiles are loaded when the class is first used, from the properties file given by
+ * the system property "species.profiles" or, if it is not set, from the species.properties
+ * file on the class path. A key has the form species.parameter (e.g. fox.maxAge=100).
+ * The diet of a species is a list of the species it eats (e.g. bear.diet=fox, rabbit, plant),
+ * so the food web can be changed without changing the code. Only predators hunt animals
+ * and only herbivores eat plants; their diet decides which. A diet with animals for a
+ * species that does not hunt, or with plants for one that does not eat them, is rejected.
+ * Species and parameters missing from the file keep their default values, so the
+ * simulation can be tuned without recompiling it.
+ *
+ * Like a random generator (see Randomizer.bind), other profiles can be bound to a thread,
+ * so that several simulations with different parameters can run on different threads.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+public class SpeciesProfile {
+    // System property naming the properties file with the profiles.
+    public static final String FILE_PROPERTY = "species.profiles";
+    // Name of the properties file looked up on the class path.
+    private static final String RESOURCE = "/species.properties";
+
+    // The species whose animals hunt (see Predator) and whose animals eat plants (see Herbivore).
+    private static final int HUNTERS = diet(Species.FOX, Species.LION, Species.BEAR);
+    private static final int GRAZERS = diet(Species.RABBIT, Species.DEER, Species.BEAR);
+
+    // Default profiles, indexed by the species' ordinal. Plants have no profile.
+    private static final SpeciesProfile[] DEFAULTS = {
+        //                  breeding  max   breeding  litter  food   disease  max    days to
+        //                  age       age   prob.     size    value  prob.    food   wait
+        new SpeciesProfile(Species.RABBIT, 5, 100, 0.80, 4, 2, 0.01, 10, 6,
+                diet(Species.PLANT)),
+        new SpeciesProfile(Species.FOX, 6, 100, 0.85, 5, 7, 0.009, 11, 4,
+                diet(Species.RABBIT)),
+        new SpeciesProfile(Species.LION, 8, 250, 0.5, 5, 20, 0.001, 13, 5,
+                diet(Species.RABBIT, Species.FOX, Species.DEER)),
+        new SpeciesProfile(Species.DEER, 7, 100, 0.41, 3, 9, 0.01, 12, 4,
+                diet(Species.PLANT)),
+        new SpeciesProfile(Species.BEAR, 10, 200, 0.59, 2, 23, 0.009, 18, 8,
+                diet(Species.FOX, Species.RABBIT, Species.PLANT)),
+        null
+    };
+    // The profiles in use, indexed by the species' ordinal.
+    private static final SpeciesProfile[] PROFILES = load();
+    // Profiles bound to the current thread, if any.
+    private static final ThreadLocal<SpeciesProfile[]> bound = new ThreadLocal<>();
+
+    // The species the profile describes.
+    private final Species species;
+    // The age at which an animal can start to breed.
+    private final int breedingAge;
+    // The age to which an animal can live.
+    private final int maxAge;
+    // The likelihood of an animal breeding.
+    private final double breedingProbability;
+    // The maximum number of births.
+    private final int maxLitterSize;
+    // The food value of a single animal when it is eaten.
+    private final int foodValue;
+    // The probability of getting sick.
+    private final double diseaseProbability;
+    // The maximum food level of an animal.
+    private final int maxFoodValue;
+    // Steps an animal needs to wait before it can breed again.
+    private final int daysToWait;
+    // Bit i is set if the species eats the species with ordinal i.
+    private final int diet;
+
+    /**
+     * Create a profile.
+     *
+     * @param species The species the profile describes.
+     * @param breedingAge The age at which an animal can start to breed.
+     * @param maxAge The age to which an animal can live.
+     * @param breedingProbability The likelihood of an animal breeding.
+     * @param maxLitterSize The maximum number of births. Must be at least 1.
+     * @param foodValue The food value of a single animal when it is eaten.
+     * @param diseaseProbability The probability of getting sick.
+     * @param maxFoodValue The maximum food level of an animal. Must be at least 1.
+     * @param daysToWait Steps an animal needs to wait before it can breed again.
+     * @param diet The species eaten, as a mask of their ordinals (see diet).
+     */
+    public SpeciesProfile(Species species, int breedingAge, int maxAge, double breedingProbability,
+                          int maxLitterSize, int foodValue, double diseaseProbability,
+                          int maxFoodValue, int daysToWait, int diet) {
+        this.species = species;
+        this.breedingAge = breedingAge;
+        this.maxAge = maxAge;
+        this.breedingProbability = breedingProbability;
+        this.maxLitterSize = maxLitterSize;
+        this.foodValue = foodValue;
+        this.diseaseProbability = diseaseProbability;
+        this.maxFoodValue = maxFoodValue;
+        this.daysToWait = daysToWait;
+        this.diet = diet;
+    }
+
+    /**
+     * Return the mask of a diet.
+     *
+     * @param eaten The species eaten.
+     * @return The mask with the bit of each eaten species set.
+     */
+    public static int diet(Species... eaten) {
+        int diet = 0;
+        for (Species species : eaten) {
+            diet |= 1 << species.ordinal();
+        }
+        return diet;
+    }
+
+    /**
+     * Return the profile of the given species.
+     *
+     * @param species An animal species.
+     * @return The profile of the species.
+     */
+    public static SpeciesProfile of(Species species) {
+        SpeciesProfile[] profiles = bound.get();
+        SpeciesProfile profile = (profiles != null ? profiles : PROFILES)[species.ordinal()];
+        if (profile == null) {
+            throw new IllegalArgumentException(species.getName() + " has no profile.");
+        }
+        return profile;
+    }
+
+    /**
+     * Make the animals created on the current thread use the given profiles.
+     *
+     * @param profiles The profiles indexed by the species' ordinal (see fromProperties),
+     *                 or null to use the loaded profiles again.
+     */
+    public static void bind(SpeciesProfile[] profiles) {
+        if (profiles == null) {
+            bound.remove();
+        }
+        else {
+            bound.set(profiles);
+        }
+    }
+
+    /**
+     * @return The profiles bound to the current thread, or null if the thread uses
+     *         the loaded profiles.
+     */
+    public static SpeciesProfile[] getBound() {
+        return bound.get();
+    }
+
+    /**
+     * Create the profiles of all species from the given properties. Missing values are
+     * taken from the default profiles.
+     *
+     * @param properties The properties defining the profiles.
+     * @return The profiles, indexed by the species' ordinal.
+     */
+    public static SpeciesProfile[] fromProperties(Properties properties) {
+        return fromProperties(properties, DEFAULTS);
+    }
+
+    /**
+     * Create the profiles of all species by changing the loaded profiles with the given
+     * properties, e.g. to vary a few parameters between simulations.
+     *
+     * @param properties The properties to be changed.
+     * @return The profiles, indexed by the species' ordinal.
+     */
+    public static SpeciesProfile[] override(Properties properties) {
+        return fromProperties(properties, PROFILES);
+    }
+
+    /**
+     * Create the profiles of all species from the given properties.
+     *
+     * @param properties The properties defining the profiles.
+     * @param base The profiles giving the missing values.
+     * @return The profiles, indexed by the species' ordinal.
+     */
+    private static SpeciesProfile[] fromProperties(Properties properties, SpeciesProfile[] base) {
+        SpeciesProfile[] profiles = new SpeciesProfile[base.length];
+        for (SpeciesProfile defaults : base) {
+            if (defaults == null) {
+                continue;
+            }
+            String prefix = defaults.species.getName().toLowerCase() + ".";
+            profiles[defaults.species.ordinal()] = new SpeciesProfile(defaults.species,
+                    getInt(properties, prefix + "breedingAge", defaults.breedingAge, 0),
+                    getInt(properties, prefix + "maxAge", defaults.maxAge, 1),
+                    getDouble(properties, prefix + "breedingProbability", defaults.breedingProbability),
+                    getInt(properties, prefix + "maxLitterSize", defaults.maxLitterSize, 1),
+                    getInt(properties, prefix + "foodValue", defaults.foodValue, 0),
+                    getDouble(properties, prefix + "diseaseProbability", defaults.diseaseProbability),
+                    getInt(properties, prefix + "maxFoodValue", defaults.maxFoodValue, 1),
+                    getInt(properties, prefix + "daysToWait", defaults.daysToWait, 0),
+                    getDiet(properties, prefix + "diet", defaults.diet, defaults.species));
+        }
+        return profiles;
+    }
+
+    /**
+     * Load the profiles from the configured properties file, if there is one.
+     *
+     * @return The profiles, indexed by the species' ordinal.
+     */
+    private static SpeciesProfile[] load() {
+        Properties properties = new Properties();
+        String file = System.getProperty(FILE_PROPERTY);
+        try {
+            if (file != null) {
+                try (Reader reader = Files.newBufferedReader(Paths.get(file))) {
+                    properties.load(reader);
+                }
+            }
+            else {
+                try (InputStream in = SpeciesProfile.class.getResourceAsStream(RESOURCE)) {
+                    if (in != null) {
+                        properties.load(in);
+                    }
+                }
+            }
+        }
+        catch (IOException e) {
+            System.out.println("Cannot read the species profiles: " + e.getMessage());
+            System.out.println("Using default values.");
+        }
+        return fromProperties(properties);
+    }
+
+    /**
+     * Read an integer parameter.
+     */
+    private static int getInt(Properties properties, String key, int defaultValue, int min) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed >= min) {
+                return parsed;
+            }
+        }
+        catch (NumberFormatException e) {
+            // Reported below.
+        }
+        System.out.println("Invalid value for " + key + ": " + value + " (must be an integer of at least " + min + ").");
+        System.out.println("Using default value (" + defaultValue + ").");
+        return defaultValue;
+    }
+
+    /**
+     * Read a probability parameter.
+     */
+    private static double getDouble(Properties properties, String key, double defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            double parsed = Double.parseDouble(value.trim());
+            if (parsed >= 0 && parsed <= 1) {
+                return parsed;
+            }
+        }
+        catch (NumberFormatException e) {
+            // Reported below.
+        }
+        System.out.println("Invalid value for " + key + ": " + value + " (must be between 0 and 1).");
+        System.out.println("Using default value (" + defaultValue + ").");
+        return defaultValue;
+    }
+
+    /**
+     * Read a diet: a comma-separated list of species names, which the species can eat.
+     */
+    private static int getDiet(Properties properties, String key, int defaultValue, Species eater) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        int diet = 0;
+        for (String name : value.split(",")) {
+            Species eaten = null;
+            for (Species species : Species.values()) {
+                if (species.getName().equalsIgnoreCase(name.trim())) {
+                    eaten = species;
+                }
+            }
+            if (eaten == null) {
+                System.out.println("Invalid value for " + key + ": " + value + " (" + name.trim() + " is not a species).");
+                System.out.println("Using default value.");
+                return defaultValue;
+            }
+            diet |= 1 << eaten.ordinal();
+        }
+        int plants = 1 << Species.PLANT.ordinal();
+        if ((diet & ~plants) != 0 && (HUNTERS & 1 << eater.ordinal()) == 0) {
+            System.out.println("Invalid value for " + key + ": " + value + " (" + eater.getName() + " does not hunt animals).");
+            System.out.println("Using default value.");
+            return defaultValue;
+        }
+        if ((diet & plants) != 0 && (GRAZERS & 1 << eater.ordinal()) == 0) {
+            System.out.println("Invalid value for " + key + ": " + value + " (" + eater.getName() + " does not eat plants).");
+            System.out.println("Using default value.");
+            return defaultValue;
+        }
+        return diet;
+    }
+
+    /**
+     * @return The species the profile describes.
+     */
+    public Species getSpecies() {
+        return species;
+    }
+
+    /**
+     * @return The age at which an animal can start to breed.
+     */
+    public int getBreedingAge() {
+        return breedingAge;
+    }
+
+    /**
+     * @return The age to which an animal can live.
+     */
+    public int getMaxAge() {
+        return maxAge;
+    }
+
+    /**
+     * @return The likelihood of an animal breeding.
+     */
+    public double getBreedingProbability() {
+        return breedingProbability;
+    }
+
+    /**
+     * @return The maximum number of births.
+     */
+    public int getMaxLitterSize() {
+        return maxLitterSize;
+    }
+
+    /**
+     * @return The food value of a single animal when it is eaten.
+     */
+    public int getFoodValue() {
+        return foodValue;
+    }
+
+    /**
+     * @return The probability of getting sick.
+     */
+    public double getDiseaseProbability() {
+        return diseaseProbability;
+    }
+
+    /**
+     * @return The maximum food level of an animal.
+     */
+    public int getMaxFoodValue() {
+        return maxFoodValue;
+    }
+
+    /**
+     * @return Steps an animal needs to wait before it can breed again.
+     */
+    public int getDaysToWait() {
+        return daysToWait;
+    }
+
+    /**
+     * @return The species eaten: bit i is set if the species with ordinal i is eaten.
+     */
+    public int getDiet() {
+        return diet;
+    }
+
+    /**
+     * @param prey Another species.
+     * @return True if the species eats the other species.
+     */
+    public boolean eats(Species prey) {
+        return (diet & 1 << prey.ordinal()) != 0;
+    }
+
+    /**
+     * @return True if the species eats plants.
+     */
+    public boolean eatsPlants() {
+        return (diet & 1 << Species.PLANT.ordinal()) != 0;
+    }
+}
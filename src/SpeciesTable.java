@@ -0,0 +1,96 @@
+/**
+ * The parameters of all animal species as a table of primitive arrays, indexed by the
+ * ordinal of the species. This is used by the AnimalSystem, which simulates animals without
+ * creating an object for each of them, in place of the constants and methods of the
+ * species' classes.
+ *
+ * The standard table is read from the SpeciesProfile of each species, which gives its
+ * parameters and its diet (and only allows diets the species can follow), and from
+ * Species.sleeps, which gives its sleeping hours. The animal objects use the same profiles
+ * and the same sleeping hours, so the table always matches their behaviour.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+public class SpeciesTable {
+    // Number of hours in the sleep table (the environment's hours of the day).
+    public static final int HOURS = 24;
+
+    // The species that are animals.
+    private static final Species[] ANIMALS = {
+        Species.RABBIT, Species.FOX, Species.LION, Species.DEER, Species.BEAR
+    };
+
+    // The parameters of each species, indexed by the species' ordinal.
+    final int[] maxAge;
+    final int[] breedingAge;
+    final double[] breedingProbability;
+    final int[] maxLitterSize;
+    final int[] daysToWait;
+    final int[] foodValue;
+    final int[] maxFoodValue;
+    final double[] diseaseProbability;
+    // Bit i is set if the species hunts the species with ordinal i.
+    final int[] preyMask;
+    // Whether the species eats plants when it finds no prey.
+    final boolean[] eatsPlants;
+    // Whether the species sleeps, indexed by species and then by hour of the day.
+    final boolean[][] asleep;
+
+    /**
+     * Create an empty table.
+     */
+    private SpeciesTable() {
+        int n = Species.values().length;
+        maxAge = new int[n];
+        breedingAge = new int[n];
+        breedingProbability = new double[n];
+        maxLitterSize = new int[n];
+        daysToWait = new int[n];
+        foodValue = new int[n];
+        maxFoodValue = new int[n];
+        diseaseProbability = new double[n];
+        preyMask = new int[n];
+        eatsPlants = new boolean[n];
+        asleep = new boolean[n][HOURS];
+    }
+
+    /**
+     * Create the table of the standard species from their profiles (see SpeciesProfile.of).
+     * No animals are created and no random numbers are drawn.
+     *
+     * @return The table of the standard species.
+     */
+    public static SpeciesTable standard() {
+        SpeciesTable table = new SpeciesTable();
+        Environment environment = new Environment(new Weather());
+        for (Species species : ANIMALS) {
+            int s = species.ordinal();
+            SpeciesProfile profile = SpeciesProfile.of(species);
+            table.maxAge[s] = profile.getMaxAge();
+            table.breedingAge[s] = profile.getBreedingAge();
+            table.breedingProbability[s] = profile.getBreedingProbability();
+            table.maxLitterSize[s] = profile.getMaxLitterSize();
+            table.daysToWait[s] = profile.getDaysToWait();
+            table.foodValue[s] = profile.getFoodValue();
+            table.maxFoodValue[s] = profile.getMaxFoodValue();
+            table.diseaseProbability[s] = profile.getDiseaseProbability();
+            table.eatsPlants[s] = profile.eatsPlants();
+            table.preyMask[s] = profile.getDiet() & ~(1 << Species.PLANT.ordinal());
+            for (int hour = 0; hour < HOURS; hour++) {
+                environment.setHourOfDay(hour);
+                table.asleep[s][hour] = species.sleeps(environment);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * @param species An animal species.
+     * @param prey Another animal species.
+     * @return True if the first species hunts the second.
+     */
+    public boolean hunts(Species species, Species prey) {
+        return (preyMask[species.ordinal()] & 1 << prey.ordinal()) != 0;
+    }
+}
@@ -0,0 +1,44 @@
+import java.util.List;
+
+/**
+ * This interface defines how the actors of a simulation act during one step.
+ * Different strategies can run the actors in different orders or on several threads,
+ * but at the end of each step the list of actors has to contain all active actors,
+ * including the newly created ones.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+public interface StepStrategy {
+
+    /**
+     * Let all the actors act once. Inactive actors are removed from the list and
+     * newly created actors are added to it.
+     *
+     * @param actors List of all actors in the simulation.
+     * @param field The field of the simulation.
+     * @param step The number of the step that is being simulated.
+     */
+    void step(List<Actor> actors, Field field, int step);
+
+    /**
+     * Called when the list of actors was changed outside of a step: when the simulation is
+     * reset or restored, when the strategy starts to be used and when a scheduler reorders
+     * the actors. Strategies that keep track of where the actors are in the list have to
+     * start again from the new list. By default nothing is done.
+     *
+     * @param actors List of all actors in the simulation.
+     */
+    default void actorsChanged(List<Actor> actors) {
+    }
+
+    /**
+     * Called when the strategy starts to be used by a simulation, with the seed from which
+     * the simulation derives its random streams (see Randomizer.deriveSeed). Strategies that
+     * derive streams of their own have to use it. By default nothing is done.
+     *
+     * @param seed The seed of the simulation.
+     */
+    default void setSeed(long seed) {
+    }
+}
@@ -0,0 +1,437 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs many headless simulations with different parameters, e.g. to find out which
+ * parameters keep all species alive. A sweep is described by a properties file in which
+ * each parameter is given a comma-separated list of values, and every combination of the
+ * values is simulated. The parameters can be:
+ *
+ *   creation.species    the probability that the species is created in a grid position
+ *                       (e.g. creation.fox = 0.02, 0.07)
+ *   weather.weather     the probability of a weather: snowy, foggy or rainy
+ *                       (e.g. weather.snowy = 0.1, 0.3)
+ *   species.parameter   a parameter of the species' profile (e.g. fox.maxAge = 100, 150)
+ *
+ * The weathers are chosen in the order snowy, foggy, rainy, and each probability applies
+ * only if none of the weathers before it was chosen. It is sunny when no other weather is
+ * chosen, so sunny cannot be swept.
+ *
+ * The settings sweep.steps, sweep.replicates (simulations of each combination), sweep.depth,
+ * sweep.width and sweep.threads can also be given. See sweep.properties for an example.
+ *
+ * The simulations run on a fixed number of threads. Each of them has its own field,
+ * environment and random stream, whose seed only depends on the combination and the
+ * replicate, so a sweep gives the same results whatever the number of threads. A line
+ * summarising each simulation is written to a CSV file as soon as it completes: for each
+ * species the step at which it died out, its mean population and the period of the
+ * oscillations of its population.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+public class SweepRunner {
+    // Prefix of the settings of the sweep.
+    private static final String SETTING_PREFIX = "sweep.";
+    // Default settings.
+    private static final int DEFAULT_STEPS = 4000;
+    private static final int DEFAULT_REPLICATES = 1;
+    private static final int DEFAULT_DEPTH = 80;
+    private static final int DEFAULT_WIDTH = 120;
+    // Names of the weathers, indexed by the state of the weather (see Weather.getState).
+    private static final String[] WEATHERS = {"sunny", "rainy", "snowy", "foggy"};
+    // All species, indexed by their ordinal.
+    private static final Species[] SPECIES = Species.values();
+
+    // The parameters of the sweep and their values, sorted by name.
+    private Map<String, String[]> parameters;
+    // Steps each simulation runs for, unless it stops being viable.
+    private int steps;
+    // Number of simulations of each combination of values.
+    private int replicates;
+    // The size of the fields.
+    private int depth, width;
+    // Number of simulations run at the same time.
+    private int threads;
+
+    /**
+     * Create a sweep from the given properties.
+     *
+     * @param properties The parameters and the settings of the sweep.
+     */
+    public SweepRunner(Properties properties) {
+        parameters = new TreeMap<>();
+        steps = getInt(properties, "steps", DEFAULT_STEPS);
+        replicates = getInt(properties, "replicates", DEFAULT_REPLICATES);
+        depth = getInt(properties, "depth", DEFAULT_DEPTH);
+        width = getInt(properties, "width", DEFAULT_WIDTH);
+        threads = getInt(properties, "threads", Runtime.getRuntime().availableProcessors());
+        for (String name : properties.stringPropertyNames()) {
+            if (!name.startsWith(SETTING_PREFIX)) {
+                addParameter(name, properties.getProperty(name).split(","));
+            }
+        }
+    }
+
+    /**
+     * Run the sweep described by a properties file.
+     *
+     * @param args The properties file and, optionally, the CSV file to write (sweep.csv by default).
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.out.println("Usage: java SweepRunner sweep.properties [output.csv]");
+            return;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(Paths.get(args[0]))) {
+            properties.load(reader);
+        }
+        Path output = Paths.get(args.length > 1 ? args[1] : "sweep.csv");
+        new SweepRunner(properties).run(output);
+    }
+
+    /**
+     * Add a parameter to the sweep, replacing its values if it was already added.
+     *
+     * @param name The name of the parameter (e.g. creation.fox).
+     * @param values The values of the parameter.
+     */
+    public void addParameter(String name, String... values) {
+        name = name.trim();
+        String[] parts = name.split("\\.");
+        boolean valid = parts.length == 2;
+        if (valid && parts[0].equals("creation")) {
+            valid = species(parts[1]) != null;
+        }
+        else if (valid && parts[0].equals("weather")) {
+            valid = weather(parts[1]) >= 0;
+            if (weather(parts[1]) == 0) {
+                System.out.println("It is sunny when no other weather is chosen, so " + name + " cannot be swept.");
+                System.out.println("The parameter is ignored.");
+                return;
+            }
+        }
+        else if (valid) {
+            valid = species(parts[0]) != null && species(parts[0]) != Species.PLANT;
+        }
+        if (!valid || values.length == 0) {
+            System.out.println("Invalid parameter: " + name + ".");
+            System.out.println("The parameter is ignored.");
+            return;
+        }
+        String[] trimmed = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            trimmed[i] = values[i].trim();
+            // Profile parameters are checked by SpeciesProfile, probabilities are checked here.
+            if ((parts[0].equals("creation") || parts[0].equals("weather")) && !isProbability(trimmed[i])) {
+                System.out.println("Invalid value for " + name + ": " + trimmed[i] + " (must be between 0 and 1).");
+                System.out.println("The parameter is ignored.");
+                return;
+            }
+        }
+        parameters.put(name, trimmed);
+    }
+
+    /**
+     * Run every combination of the values of the parameters and write a summary
+     * of each simulation to a CSV file, in the order in which they complete.
+     *
+     * @param output The CSV file to write.
+     * @throws IOException If the file cannot be written.
+     * @throws InterruptedException If the thread is interrupted while waiting for the simulations.
+     */
+    public void run(Path output) throws IOException, InterruptedException {
+        String[] names = parameters.keySet().toArray(new String[0]);
+        int combinations = 1;
+        for (String[] values : parameters.values()) {
+            combinations *= values.length;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (Writer writer = Files.newBufferedWriter(output)) {
+            writer.write(header(names));
+            writer.flush();
+            List<Future<?>> runs = new ArrayList<>();
+            for (int combination = 0; combination < combinations; combination++) {
+                String[] values = combination(combination);
+                // The profiles are created once for all replicates, so invalid values are reported once.
+                SpeciesProfile[] profiles = profiles(names, values);
+                for (int replicate = 0; replicate < replicates; replicate++) {
+                    int c = combination;
+                    int r = replicate;
+                    runs.add(executor.submit(() -> {
+                        String line = simulate(c, r, names, values, profiles);
+                        synchronized (writer) {
+                            writer.write(line);
+                            writer.flush();
+                        }
+                        return null;
+                    }));
+                }
+            }
+            for (Future<?> run : runs) {
+                try {
+                    run.get();
+                }
+                catch (ExecutionException e) {
+                    System.out.println("A simulation failed: " + e.getCause());
+                }
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        System.out.println("Wrote " + combinations * replicates + " simulations to " + output + ".");
+    }
+
+    /**
+     * Run one simulation on the current thread.
+     *
+     * @param combination The index of the combination of values.
+     * @param replicate The index of the simulation among those of the combination.
+     * @param names The names of the parameters.
+     * @param values The values of the parameters.
+     * @param profiles The profiles of the species, null to use the loaded ones.
+     * @return The line of the CSV file summarising the simulation.
+     */
+    private String simulate(int combination, int replicate, String[] names, String[] values, SpeciesProfile[] profiles) {
+        long seed = Randomizer.deriveSeed(Randomizer.getSeed(), combination, replicate);
+        Randomizer.bind(new RandomStream(seed));
+        SpeciesProfile.bind(profiles);
+        try {
+            Simulator simulator = new Simulator(depth, width, true);
+            Weather weather = simulator.getEnvironment().getWeather();
+            for (int i = 0; i < names.length; i++) {
+                String[] parts = names[i].split("\\.");
+                if (parts[0].equals("creation")) {
+                    simulator.setCreationProbability(species(parts[1]), Double.parseDouble(values[i]));
+                }
+                else if (parts[0].equals("weather")) {
+                    weather.setProbability(weather(parts[1]), Double.parseDouble(values[i]));
+                }
+            }
+            simulator.reset();
+
+            RunSummary summary = new RunSummary(steps);
+            summary.record(simulator);
+            while (simulator.getStep() < steps && simulator.isViable()) {
+                simulator.simulateOneStep();
+                summary.record(simulator);
+            }
+
+            StringBuilder line = new StringBuilder();
+            line.append(combination).append(',').append(replicate).append(',').append(seed);
+            for (String value : values) {
+                line.append(',').append(value);
+            }
+            line.append(',').append(simulator.getStep());
+            summary.append(line);
+            return line.append('\n').toString();
+        }
+        finally {
+            Randomizer.bind(null);
+            SpeciesProfile.bind(null);
+        }
+    }
+
+    /**
+     * @param names The names of the parameters.
+     * @return The first line of the CSV file.
+     */
+    private String header(String[] names) {
+        StringBuilder header = new StringBuilder("combination,replicate,seed");
+        for (String name : names) {
+            header.append(',').append(name);
+        }
+        header.append(",steps");
+        for (Species species : SPECIES) {
+            String name = species.getName().toLowerCase();
+            header.append(',').append(name).append("Extinction");
+            header.append(',').append(name).append("Mean");
+            header.append(',').append(name).append("Period");
+        }
+        return header.append('\n').toString();
+    }
+
+    /**
+     * @param combination The index of a combination of values.
+     * @return The value of each parameter in that combination, in the order of their names.
+     */
+    private String[] combination(int combination) {
+        String[] combined = new String[parameters.size()];
+        List<String[]> values = new ArrayList<>(parameters.values());
+        for (int i = combined.length - 1; i >= 0; i--) {
+            String[] options = values.get(i);
+            combined[i] = options[combination % options.length];
+            combination /= options.length;
+        }
+        return combined;
+    }
+
+    /**
+     * Create the profiles of the species for a combination of values.
+     *
+     * @return The profiles, or null if no parameter of a species' profile is swept.
+     */
+    private SpeciesProfile[] profiles(String[] names, String[] values) {
+        Properties changes = new Properties();
+        for (int i = 0; i < names.length; i++) {
+            String prefix = names[i].substring(0, names[i].indexOf('.'));
+            if (!prefix.equals("creation") && !prefix.equals("weather")) {
+                changes.setProperty(names[i], values[i]);
+            }
+        }
+        return changes.isEmpty() ? null : SpeciesProfile.override(changes);
+    }
+
+    /**
+     * @param name The lower case name of a species.
+     * @return The species, or null if there is none with that name.
+     */
+    private static Species species(String name) {
+        for (Species species : SPECIES) {
+            if (species.getName().toLowerCase().equals(name)) {
+                return species;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param name The name of a weather.
+     * @return The state of the weather (see Weather.getState), or -1 if there is none with that name.
+     */
+    private static int weather(String name) {
+        for (int state = 0; state < WEATHERS.length; state++) {
+            if (WEATHERS[state].equals(name)) {
+                return state;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param value A value of a parameter.
+     * @return True if the value is a number between 0 and 1.
+     */
+    private static boolean isProbability(String value) {
+        try {
+            double parsed = Double.parseDouble(value);
+            return parsed >= 0 && parsed <= 1;
+        }
+        catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Read a setting of the sweep.
+     */
+    private static int getInt(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(SETTING_PREFIX + key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed > 0) {
+                return parsed;
+            }
+        }
+        catch (NumberFormatException e) {
+            // Reported below.
+        }
+        System.out.println("Invalid value for " + SETTING_PREFIX + key + ": " + value + " (must be greater than zero).");
+        System.out.println("Using default value (" + defaultValue + ").");
+        return defaultValue;
+    }
+
+    /**
+     * The population of each species at every step of a simulation, and the statistics
+     * computed from it.
+     */
+    private static class RunSummary {
+        // The population of each species, indexed by the species' ordinal and the step.
+        private int[][] populations;
+        // Number of steps recorded.
+        private int size;
+
+        /**
+         * Create an empty summary.
+         *
+         * @param steps The number of steps of the simulation.
+         */
+        private RunSummary(int steps) {
+            populations = new int[SPECIES.length][steps + 1];
+        }
+
+        /**
+         * Record the populations of the current step of a simulation.
+         */
+        private void record(Simulator simulator) {
+            Field field = simulator.getField();
+            for (Species species : SPECIES) {
+                populations[species.ordinal()][size] = field.getPopulation(species);
+            }
+            size++;
+        }
+
+        /**
+         * Append the statistics of each species to a line of the CSV file: the step at
+         * which it died out, its mean population and the mean number of steps between two
+         * times its population rose above the mean. Statistics that do not exist (e.g.
+         * the extinction of a species that survived) are left empty.
+         */
+        private void append(StringBuilder line) {
+            for (int[] population : populations) {
+                long total = 0;
+                int extinction = -1;
+                for (int step = 0; step < size; step++) {
+                    total += population[step];
+                    if (extinction < 0 && population[step] == 0 && population[0] > 0) {
+                        extinction = step;
+                    }
+                }
+                double mean = (double) total / size;
+
+                int crossings = 0;
+                int first = 0;
+                int last = 0;
+                for (int step = 1; step < size; step++) {
+                    if (population[step - 1] < mean && population[step] >= mean) {
+                        if (crossings == 0) {
+                            first = step;
+                        }
+                        last = step;
+                        crossings++;
+                    }
+                }
+
+                line.append(',');
+                if (extinction >= 0) {
+                    line.append(extinction);
+                }
+                line.append(',').append(String.format(Locale.ROOT, "%.1f", mean));
+                line.append(',');
+                if (crossings > 1) {
+                    line.append(String.format(Locale.ROOT, "%.1f", (double) (last - first) / (crossings - 1)));
+                }
+            }
+        }
+    }
+}
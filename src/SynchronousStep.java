@@ -0,0 +1,126 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * A bulk-synchronous step strategy. Instead of acting one after another on a field that
+ * changes under them, the animals of an AnimalSystem all look at the field as it was at the
+ * start of the step: first every awake animal proposes what it will do (move, eat, give birth
+ * or die), and then the proposals are committed in a random order of priority, resolving
+ * conflicting moves and births deterministically (see AnimalSystem). The result therefore does
+ * not depend on the order of the animals, and the proposals can be made concurrently. They are
+ * split into blocks made on several threads, and since every animal uses its own random stream
+ * a given seed gives the same result whatever the number of threads.
+ *
+ * This needs the entity store (see Simulator.setEntityStore). The other actors (the weather,
+ * the plants and any animal objects) act one after another, in the order of the list of actors.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+public class SynchronousStep implements StepStrategy {
+    // The number of proposals made by a single task.
+    private static final int BLOCK_SIZE = 1024;
+
+    // The pool making the proposals.
+    private ForkJoinPool pool;
+    // Random streams of the tasks, one per block.
+    private List<RandomStream> blockRandoms;
+
+    /**
+     * Create a bulk-synchronous step strategy.
+     *
+     * @param threads The number of threads making the proposals. Must be at least 1.
+     */
+    public SynchronousStep(int threads) {
+        if (threads < 1) {
+            System.out.println("The number of threads must be at least one.");
+            System.out.println("Using one thread.");
+            threads = 1;
+        }
+        pool = new ForkJoinPool(threads);
+        blockRandoms = new ArrayList<>();
+    }
+
+    /**
+     * Let all actors act. The animals of an AnimalSystem act bulk-synchronously during
+     * the system's turn, the other actors act one after another.
+     *
+     * @see StepStrategy
+     */
+    @Override
+    public void step(List<Actor> actors, Field field, int step) {
+        // Newborns are appended to the list and moved after the active actors, as in SequentialStep.
+        int size = actors.size();
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            Actor actor = actors.get(i);
+            if (actor instanceof AnimalSystem) {
+                act((AnimalSystem) actor, step);
+            }
+            else {
+                actor.act(actors);
+            }
+            if (actor.isActive()) {
+                actors.set(kept++, actor);
+            }
+        }
+        int total = actors.size();
+        for (int i = size; i < total; i++) {
+            actors.set(kept++, actors.get(i));
+        }
+        actors.subList(kept, total).clear();
+    }
+
+    /**
+     * Stop the threads used by this strategy. It cannot be used afterwards.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Let the animals of a system make their proposals concurrently, and then commit them.
+     *
+     * @param system The animals.
+     * @param step The number of the current step.
+     */
+    private void act(AnimalSystem system, int step) {
+        int proposals = system.prepareProposals();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int from = 0, block = 0; from < proposals; from += BLOCK_SIZE, block++) {
+            if (blockRandoms.size() == block) {
+                blockRandoms.add(new RandomStream(0));
+            }
+            RandomStream random = blockRandoms.get(block);
+            int start = from;
+            int end = Math.min(from + BLOCK_SIZE, proposals);
+            tasks.add(() -> {
+                Randomizer.bind(random);
+                try {
+                    system.propose(start, end, step, random);
+                }
+                finally {
+                    Randomizer.bind(null);
+                }
+                return null;
+            });
+        }
+        for (Future<Void> result : pool.invokeAll(tasks)) {
+            try {
+                result.get();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the proposals.", e);
+            }
+            catch (ExecutionException e) {
+                throw new IllegalStateException("An animal failed to make its proposal.", e.getCause());
+            }
+        }
+        system.commitProposals(step);
+    }
+}
@@ -0,0 +1,116 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A scheduler that orders the actors by the tile of the field they are in. The field is
+ * cut into square tiles; before every step the tiles are put in a random order, and the
+ * actors of each tile act one after another in the order of the list. Actors without a
+ * location (e.g. the weather) act first.
+ *
+ * It needs a random number per tile and two passes over the list (a counting sort), and
+ * since neighbouring actors then act together, the cells they use tend to be in the cache.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+public class TiledOrder implements Scheduler {
+    // The default width and height of a tile, in cells.
+    private static final int DEFAULT_TILE_SIZE = 8;
+
+    // The width and height of a tile, in cells.
+    private int tileSize;
+    // The order of the tiles.
+    private int[] tileOrder;
+    // The position in the new order of the first actor of each tile, and then of the next one.
+    private int[] next;
+    // The tile of each actor, -1 if it has no location.
+    private int[] actorTiles;
+    // The actors in their new order.
+    private Actor[] buffer;
+
+    /**
+     * Create a scheduler with the default tile size.
+     */
+    public TiledOrder() {
+        this(DEFAULT_TILE_SIZE);
+    }
+
+    /**
+     * Create a scheduler.
+     *
+     * @param tileSize The width and height of a tile, in cells. Must be at least 1.
+     */
+    public TiledOrder(int tileSize) {
+        if (tileSize < 1) {
+            System.out.println("The tile size must be at least one.");
+            System.out.println("Using default value (" + DEFAULT_TILE_SIZE + ").");
+            tileSize = DEFAULT_TILE_SIZE;
+        }
+        this.tileSize = tileSize;
+        tileOrder = new int[0];
+        next = new int[0];
+        actorTiles = new int[0];
+        buffer = new Actor[0];
+    }
+
+    /**
+     * @see Scheduler
+     */
+    @Override
+    public boolean schedule(List<Actor> actors, Field field, int step) {
+        int n = actors.size();
+        int tilesAcross = (field.getWidth() + tileSize - 1) / tileSize;
+        int tiles = tilesAcross * ((field.getDepth() + tileSize - 1) / tileSize);
+        if (tileOrder.length < tiles) {
+            tileOrder = new int[tiles];
+            next = new int[tiles];
+        }
+        if (buffer.length < n) {
+            buffer = new Actor[n];
+            actorTiles = new int[n];
+        }
+
+        // Count the actors of each tile.
+        Arrays.fill(next, 0, tiles, 0);
+        int unplaced = 0;
+        for (int i = 0; i < n; i++) {
+            Location location = Scheduler.getLocation(actors.get(i));
+            if (location == null) {
+                actorTiles[i] = -1;
+                unplaced++;
+            }
+            else {
+                int tile = location.getRow() / tileSize * tilesAcross + location.getCol() / tileSize;
+                actorTiles[i] = tile;
+                next[tile]++;
+            }
+        }
+
+        // Shuffle the tiles (inside-out Fisher-Yates) and find where each one starts.
+        Random rand = Randomizer.getRandom();
+        for (int i = 0; i < tiles; i++) {
+            int j = rand.nextInt(i + 1);
+            tileOrder[i] = tileOrder[j];
+            tileOrder[j] = i;
+        }
+        int position = unplaced;
+        for (int i = 0; i < tiles; i++) {
+            int tile = tileOrder[i];
+            int count = next[tile];
+            next[tile] = position;
+            position += count;
+        }
+
+        unplaced = 0;
+        for (int i = 0; i < n; i++) {
+            int tile = actorTiles[i];
+            buffer[tile < 0 ? unplaced++ : next[tile]++] = actors.get(i);
+        }
+        for (int i = 0; i < n; i++) {
+            actors.set(i, buffer[i]);
+            buffer[i] = null;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,161 @@
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A hierarchical timing wheel, which keeps events that are due at a given tick of a clock.
+ * The first level has a slot for each of the next 64 ticks, the second level a slot for each
+ * of the next 64 blocks of 64 ticks, and so on. When the clock enters a new block, the events
+ * of its slot in the level above are moved down a level, so scheduling an event and firing it
+ * each cost a constant amount of work however far ahead it is due.
+ *
+ * Events are ints chosen by the caller, e.g. the ID of an animal. They cannot be cancelled:
+ * the caller should ignore the events that are no longer valid when they fire. The events
+ * are kept in linked lists of nodes held in arrays, which are recycled.
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+public class TimingWheel {
+    // The number of ticks covered by a slot grows by this many bits from one level to the next.
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 4;
+    // The end of a list of nodes.
+    private static final int NIL = -1;
+    // Number of events the nodes can initially hold.
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // The current tick of the clock.
+    private int now;
+    // The first node of each slot, indexed by level and then by slot.
+    private final int[][] heads;
+    // The tick at which each node's event is due, the event, and the node after it in its list.
+    private int[] times;
+    private int[] events;
+    private int[] next;
+    // The first unused node.
+    private int free;
+
+    /**
+     * Create an empty wheel at tick 0.
+     */
+    public TimingWheel() {
+        heads = new int[LEVELS][SLOTS];
+        times = new int[0];
+        events = new int[0];
+        next = new int[0];
+        grow(INITIAL_CAPACITY);
+        clear();
+    }
+
+    /**
+     * Remove all events and set the clock back to tick 0.
+     */
+    public void clear() {
+        for (int[] level : heads) {
+            Arrays.fill(level, NIL);
+        }
+        for (int node = 0; node < next.length; node++) {
+            next[node] = node + 1 < next.length ? node + 1 : NIL;
+        }
+        free = 0;
+        now = 0;
+    }
+
+    /**
+     * @return The current tick of the clock.
+     */
+    public int now() {
+        return now;
+    }
+
+    /**
+     * Schedule an event. An event that is due now or earlier is due at the next tick.
+     *
+     * @param time The tick at which the event is due.
+     * @param event The event.
+     */
+    public void schedule(int time, int event) {
+        if (free == NIL) {
+            grow(next.length * 2);
+        }
+        int node = free;
+        free = next[node];
+        times[node] = Math.max(time, now + 1);
+        events[node] = event;
+        insert(node);
+    }
+
+    /**
+     * Move the clock on by one tick and fire the events that are due then. The handler may
+     * schedule new events.
+     *
+     * @param handler Called with every event that is due, in no particular order.
+     */
+    public void advance(IntConsumer handler) {
+        now++;
+        // Move the events of the blocks that start now down, from the highest level.
+        int level = 0;
+        while (level < LEVELS - 1 && (now & (1 << SLOT_BITS * (level + 1)) - 1) == 0) {
+            level++;
+        }
+        for (; level > 0; level--) {
+            int slot = now >>> SLOT_BITS * level & SLOTS - 1;
+            int node = heads[level][slot];
+            heads[level][slot] = NIL;
+            while (node != NIL) {
+                int after = next[node];
+                insert(node);
+                node = after;
+            }
+        }
+
+        int slot = now & SLOTS - 1;
+        int node = heads[0][slot];
+        heads[0][slot] = NIL;
+        while (node != NIL) {
+            int after = next[node];
+            int event = events[node];
+            next[node] = free;
+            free = node;
+            handler.accept(event);
+            node = after;
+        }
+    }
+
+    /**
+     * Put a node into the slot of the lowest level that covers the tick at which it is due.
+     * Events beyond the highest level are put into its last slot, and moved further down
+     * when they get closer.
+     */
+    private void insert(int node) {
+        int time = times[node];
+        int delay = time - now;
+        int level = 0;
+        while (level < LEVELS - 1 && delay >= 1 << SLOT_BITS * (level + 1)) {
+            level++;
+        }
+        if (delay >= 1 << SLOT_BITS * LEVELS) {
+            time = now + (1 << SLOT_BITS * LEVELS) - 1;
+        }
+        int slot = time >>> SLOT_BITS * level & SLOTS - 1;
+        next[node] = heads[level][slot];
+        heads[level][slot] = node;
+    }
+
+    /**
+     * Enlarge the arrays of the nodes, adding the new nodes to the unused ones.
+     *
+     * @param capacity The number of events the nodes must hold.
+     */
+    private void grow(int capacity) {
+        int old = next.length;
+        times = Arrays.copyOf(times, capacity);
+        events = Arrays.copyOf(events, capacity);
+        next = Arrays.copyOf(next, capacity);
+        for (int node = old; node < capacity; node++) {
+            next[node] = node + 1 < capacity ? node + 1 : free;
+        }
+        free = old;
+    }
+}
@@ -0,0 +1,68 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keep count of the births and deaths of animals in a field since it was last cleared.
+ * Counts are updated as the events happen, possibly from several threads at the same
+ * time, and can be read at any time (e.g. after each step).
+ *
+ * @author Jacopo Madaluni and Luka Kralj
+ * @version February 2018
+ */
+public class VitalStatistics {
+    // Number of animals born.
+    private LongAdder births;
+    // Number of animals that died, indexed by the ordinal of the cause of death.
+    private LongAdder[] deaths;
+
+    /**
+     * Create new statistics with all counts set to zero.
+     */
+    public VitalStatistics() {
+        births = new LongAdder();
+        deaths = new LongAdder[DeathCause.values().length];
+        for (int i = 0; i < deaths.length; i++) {
+            deaths[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Record the birth of an animal.
+     */
+    public void recordBirth() {
+        births.increment();
+    }
+
+    /**
+     * Record the death of an animal.
+     *
+     * @param cause Why the animal died.
+     */
+    public void recordDeath(DeathCause cause) {
+        deaths[cause.ordinal()].increment();
+    }
+
+    /**
+     * @return The number of animals born.
+     */
+    public long getBirths() {
+        return births.sum();
+    }
+
+    /**
+     * @param cause A cause of death.
+     * @return The number of animals that died for the given cause.
+     */
+    public long getDeaths(DeathCause cause) {
+        return deaths[cause.ordinal()].sum();
+    }
+
+    /**
+     * Set all counts back to zero.
+     */
+    public void reset() {
+        births.reset();
+        for (LongAdder count : deaths) {
+            count.reset();
+        }
+    }
+}
@@ -1,5 +1,4 @@
 import java.util.List;
-import java.util.Random;
 
 /**
  * The model class of the weather.
@@ -17,12 +16,10 @@ public class Weather implements Actor {
     private boolean snowy;
     private boolean foggy;
 
-    private final double SUN_PROBABILITY= 0.8;
-    private final double RAIN_PROBABILITY= 0.7;
-    private final double SNOW_PROBABILITY= 0.1;
-    private final double FOG_PROBABILITY= 0.2;
-
-    private Random rand = Randomizer.getRandom();
+    // The probability of each weather, indexed by the state of the weather (see getState).
+    // Snow is tried first, then fog and then rain; otherwise it is sunny, so the probability
+    // of sunny is not used.
+    private final double[] probabilities = {0.8, 0.7, 0.1, 0.2};
 
     /**
      * Create a new weather.
@@ -47,13 +44,13 @@ public class Weather implements Actor {
     @Override
     public void act(List<Actor> newActors) {
         reset();
-        if (Randomizer.getRandom().nextDouble() <= SNOW_PROBABILITY){
+        if (Randomizer.getRandom().nextDouble() <= probabilities[2]){
             snowy = true;
         }
-        else if (Randomizer.getRandom().nextDouble() <= FOG_PROBABILITY){
+        else if (Randomizer.getRandom().nextDouble() <= probabilities[3]){
             foggy = true;
         }
-        else if (Randomizer.getRandom().nextDouble() <= RAIN_PROBABILITY){
+        else if (Randomizer.getRandom().nextDouble() <= probabilities[1]){
             rainy = true;
         }
         else{
@@ -61,6 +58,27 @@ public class Weather implements Actor {
         }
     }
 
+    /**
+     * Change the probability of a weather, e.g. to compare simulations with different climates.
+     * Snow is tried first, then fog and then rain, and each probability only applies if none
+     * of the weathers before it was chosen. It is sunny when no other weather is chosen, so
+     * the probability of sunny cannot be changed.
+     * @param state A number representing the weather, as returned by getState (but not 0).
+     * @param probability The probability of the weather, between 0 and 1.
+     */
+    public void setProbability(int state, double probability){
+        if (state <= 0 || state >= probabilities.length){
+            System.out.println("Invalid weather: " + state + ".");
+            return;
+        }
+        if (probability < 0 || probability > 1){
+            System.out.println("Invalid probability: " + probability + " (must be between 0 and 1).");
+            System.out.println("Using current value (" + probabilities[state] + ").");
+            return;
+        }
+        probabilities[state] = probability;
+    }
+
     /**
      * Returns a integer that represents the conditions for a plant to grow and spread.
      * Higher the value, better the condition.
@@ -109,6 +127,42 @@ public class Weather implements Actor {
         snowy = false;
     }
 
+    /**
+     * @return A number representing the weather: 0 for sunny, 1 for rainy, 2 for snowy and 3 for foggy.
+     */
+    public int getState(){
+        if (sunny){
+            return 0;
+        }
+        if (rainy){
+            return 1;
+        }
+        if (snowy){
+            return 2;
+        }
+        return 3;
+    }
+
+    /**
+     * Set the weather, e.g. when the simulation is restored from a snapshot.
+     * @param state A number representing the weather, as returned by getState.
+     */
+    public void setState(int state){
+        reset();
+        if (state == 0){
+            sunny = true;
+        }
+        else if (state == 1){
+            rainy = true;
+        }
+        else if (state == 2){
+            snowy = true;
+        }
+        else{
+            foggy = true;
+        }
+    }
+
     /**
      * @return The string to be printed in the GUI.
      */